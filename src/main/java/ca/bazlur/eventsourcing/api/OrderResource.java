@@ -6,7 +6,7 @@ import ca.bazlur.eventsourcing.api.dto.OrderResponse;
 import ca.bazlur.eventsourcing.core.EventSchemaException;
 import ca.bazlur.eventsourcing.domain.order.Order;
 import ca.bazlur.eventsourcing.domain.order.OrderStatus;
-import ca.bazlur.eventsourcing.infrastructure.JpaEventStore;
+import ca.bazlur.eventsourcing.infrastructure.GroupCommitAppender;
 import ca.bazlur.eventsourcing.projections.OrderProjection;
 import ca.bazlur.eventsourcing.projections.OrderProjectionModel;
 import io.opentelemetry.instrumentation.annotations.WithSpan;
@@ -36,11 +36,11 @@ import java.util.UUID;
 @Consumes(MediaType.APPLICATION_JSON)
 public class OrderResource {
     private static final Logger log = LoggerFactory.getLogger(OrderResource.class);
-    private final JpaEventStore eventStore;
+    private final GroupCommitAppender appender;
     private final OrderProjection orderProjection;
 
-    public OrderResource(JpaEventStore eventStore, OrderProjection orderProjection) {
-        this.eventStore = eventStore;
+    public OrderResource(GroupCommitAppender appender, OrderProjection orderProjection) {
+        this.appender = appender;
         this.orderProjection = orderProjection;
     }
 
@@ -55,7 +55,7 @@ public class OrderResource {
 
             var order = Order.create(orderId, request.customerId(), correlationId);
             var events = order.getUncommittedEvents();
-            eventStore.appendEvents(orderId, events, 0);
+            appender.append(orderId, events, 0);
 
             // Update projection with new events
             events.forEach(orderProjection::handle);
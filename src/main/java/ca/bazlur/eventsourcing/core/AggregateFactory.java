@@ -0,0 +1,11 @@
+package ca.bazlur.eventsourcing.core;
+
+/**
+ * Creates an empty aggregate for a given ID, ready to load its history.
+ *
+ * @param <T> the aggregate type
+ */
+@FunctionalInterface
+public interface AggregateFactory<T extends AggregateRoot> {
+    T create(String aggregateId);
+}
@@ -4,6 +4,7 @@ import lombok.Getter;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
 public abstract class AggregateRoot {
     @Getter
@@ -34,6 +35,16 @@ public abstract class AggregateRoot {
         }
     }
 
+    /**
+     * Applies events as they are read, without holding the whole history in memory.
+     */
+    public void loadFromHistory(Stream<DomainEvent> events) {
+        events.forEachOrdered(event -> {
+            handleEvent(event);
+            version = event.getVersion();
+        });
+    }
+
     public List<DomainEvent> getUncommittedEvents() {
         return List.copyOf(uncommittedEvents);
     }
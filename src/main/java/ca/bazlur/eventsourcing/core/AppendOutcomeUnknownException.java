@@ -0,0 +1,16 @@
+package ca.bazlur.eventsourcing.core;
+
+/**
+ * Exception thrown when an append's transaction failed while committing, so the events may or
+ * may not have been stored. Retrying blindly could store them twice; callers should read the
+ * stream back to find out before appending again.
+ */
+public class AppendOutcomeUnknownException extends EventStoreException {
+    public AppendOutcomeUnknownException(String message) {
+        super(message);
+    }
+
+    public AppendOutcomeUnknownException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -1,13 +1,16 @@
 package ca.bazlur.eventsourcing.core;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.annotation.JsonTypeIdResolver;
 import lombok.Getter;
 
 import java.time.Instant;
 import java.util.UUID;
 
 @Getter
-@JsonTypeInfo(use = JsonTypeInfo.Id.CLASS, property = "@type")
+@JsonTypeInfo(use = JsonTypeInfo.Id.CUSTOM, property = "@type")
+@JsonTypeIdResolver(EventTypeIdResolver.class)
 public abstract class DomainEvent {
     private final String eventId = UUID.randomUUID().toString();
     private final Instant timestamp = Instant.now();
@@ -17,6 +20,13 @@ public abstract class DomainEvent {
     private final String causationId;
     private final int schemaVersion;
 
+    /**
+     * Position in the global log, assigned by the event store when the event is appended
+     * and restored when it is read back. Zero until the event has been stored.
+     */
+    @JsonIgnore
+    private long globalPosition;
+
     protected DomainEvent(String aggregateId, long version, String correlationId, String causationId) {
         this.aggregateId = aggregateId;
         this.version = version;
@@ -31,6 +41,15 @@ public abstract class DomainEvent {
         this.schemaVersion = annotation.value();
     }
 
+    /**
+     * Records the global position assigned by the event store. Not part of the payload.
+     *
+     * @param globalPosition the store-assigned position
+     */
+    public void setGlobalPosition(long globalPosition) {
+        this.globalPosition = globalPosition;
+    }
+
     /**
      * Gets the event type name. By default, returns the class name without the "Event" suffix.
      * Override this method if you need a different naming convention.
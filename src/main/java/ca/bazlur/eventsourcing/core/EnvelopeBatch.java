@@ -0,0 +1,28 @@
+package ca.bazlur.eventsourcing.core;
+
+import java.util.List;
+
+/**
+ * A slice of the global event log read with a position cursor, with each payload left
+ * undecoded until it is asked for. Works like {@link EventBatch} otherwise.
+ *
+ * @param envelopes    the events in global order
+ * @param lastPosition the global position of the last event in this slice
+ */
+public record EnvelopeBatch(List<EventEnvelope> envelopes, long lastPosition) {
+    public EnvelopeBatch {
+        envelopes = List.copyOf(envelopes);
+    }
+
+    public static EnvelopeBatch empty(long position) {
+        return new EnvelopeBatch(List.of(), position);
+    }
+
+    public boolean isEmpty() {
+        return envelopes.isEmpty();
+    }
+
+    public int size() {
+        return envelopes.size();
+    }
+}
@@ -0,0 +1,29 @@
+package ca.bazlur.eventsourcing.core;
+
+import java.util.List;
+
+/**
+ * A slice of the global event log read with a position cursor.
+ * The {@code lastPosition} is the cursor to pass to the next read; it stays at
+ * the requested position when the slice is empty.
+ *
+ * @param events       the events in global order
+ * @param lastPosition the global position of the last event in this slice
+ */
+public record EventBatch(List<DomainEvent> events, long lastPosition) {
+    public EventBatch {
+        events = List.copyOf(events);
+    }
+
+    public static EventBatch empty(long position) {
+        return new EventBatch(List.of(), position);
+    }
+
+    public boolean isEmpty() {
+        return events.isEmpty();
+    }
+
+    public int size() {
+        return events.size();
+    }
+}
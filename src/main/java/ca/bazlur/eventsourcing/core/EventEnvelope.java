@@ -0,0 +1,98 @@
+package ca.bazlur.eventsourcing.core;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.function.Function;
+
+/**
+ * An event as read from the log: its metadata, and its payload still in stored form. The typed
+ * event is deserialized the first time {@link #getEvent()} is called and kept from then on, so a
+ * consumer that skips events by type or stream never pays for decoding them, and consumers that
+ * share an envelope decode it once between them.
+ */
+@Getter
+public final class EventEnvelope {
+    private final String eventId;
+    /**
+     * The event type as stored: the compact type id, or the type name for events stored before ids existed.
+     */
+    private final String eventType;
+    private final String streamId;
+    /**
+     * The simple name of the aggregate type that emitted the event, or null if it was not recorded.
+     */
+    private final String aggregateType;
+    private final long version;
+    private final long globalPosition;
+    private final Instant timestamp;
+    private final String correlationId;
+    private final String causationId;
+    /**
+     * The payload bytes as stored, possibly compressed.
+     */
+    private final byte[] payload;
+
+    @Getter(AccessLevel.NONE)
+    private final Class<? extends DomainEvent> eventClass;
+    @Getter(AccessLevel.NONE)
+    private final Function<byte[], DomainEvent> decoder;
+    @Getter(AccessLevel.NONE)
+    private volatile DomainEvent event;
+
+    /**
+     * @param eventClass the class registered for the event type, or null if the type is unknown
+     * @param decoder    turns the stored payload into the typed event
+     */
+    public EventEnvelope(String eventId, String eventType, Class<? extends DomainEvent> eventClass, String streamId,
+                         String aggregateType, long version, long globalPosition, Instant timestamp,
+                         String correlationId, String causationId, byte[] payload,
+                         Function<byte[], DomainEvent> decoder) {
+        this.eventId = eventId;
+        this.eventType = eventType;
+        this.eventClass = eventClass;
+        this.streamId = streamId;
+        this.aggregateType = aggregateType;
+        this.version = version;
+        this.globalPosition = globalPosition;
+        this.timestamp = timestamp;
+        this.correlationId = correlationId;
+        this.causationId = causationId;
+        this.payload = payload;
+        this.decoder = decoder;
+    }
+
+    /**
+     * Tells whether the event is of the given type, without deserializing it.
+     *
+     * @return false if the stored event type is not registered
+     */
+    public boolean isOfType(Class<? extends DomainEvent> type) {
+        return eventClass != null && type.isAssignableFrom(eventClass);
+    }
+
+    /**
+     * Gets the typed event, deserializing the payload on the first call.
+     *
+     * @throws RuntimeException if the payload cannot be deserialized
+     */
+    public DomainEvent getEvent() {
+        var decoded = event;
+        if (decoded == null) {
+            synchronized (this) {
+                decoded = event;
+                if (decoded == null) {
+                    decoded = decoder.apply(payload);
+                    decoded.setGlobalPosition(globalPosition);
+                    event = decoded;
+                }
+            }
+        }
+        return decoded;
+    }
+
+    public boolean isDecoded() {
+        return event != null;
+    }
+}
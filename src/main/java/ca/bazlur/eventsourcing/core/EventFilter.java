@@ -0,0 +1,75 @@
+package ca.bazlur.eventsourcing.core;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Selects events of the global log by event type and by the type of aggregate that emitted them.
+ * An empty set places no restriction, so {@link #ALL} matches every event. The event store pushes
+ * the filter down into its query; there, event types match their registered class exactly, so a
+ * subclass has to be listed in its own right, and aggregate types select the event types
+ * registered for them.
+ *
+ * @param eventTypes     the event types to select, or empty for any
+ * @param aggregateTypes the aggregate types to select, or empty for any
+ */
+public record EventFilter(Set<Class<? extends DomainEvent>> eventTypes,
+                          Set<Class<? extends AggregateRoot>> aggregateTypes) {
+
+    public static final EventFilter ALL = new EventFilter(Set.of(), Set.of());
+
+    public EventFilter {
+        eventTypes = Set.copyOf(eventTypes);
+        aggregateTypes = Set.copyOf(aggregateTypes);
+    }
+
+    public static EventFilter forEventTypes(Collection<Class<? extends DomainEvent>> eventTypes) {
+        return new EventFilter(Set.copyOf(eventTypes), Set.of());
+    }
+
+    @SafeVarargs
+    public static EventFilter forEventTypes(Class<? extends DomainEvent>... eventTypes) {
+        return new EventFilter(Set.of(eventTypes), Set.of());
+    }
+
+    @SafeVarargs
+    public static EventFilter forAggregateTypes(Class<? extends AggregateRoot>... aggregateTypes) {
+        return new EventFilter(Set.of(), Set.of(aggregateTypes));
+    }
+
+    /**
+     * Combines filters into one that selects every event any of them selects. The result may
+     * select more than that, as it restricts event and aggregate types independently; readers
+     * that share it should still apply their own filter with {@link #matches(EventEnvelope)}.
+     */
+    public static EventFilter union(Collection<EventFilter> filters) {
+        if (filters.isEmpty() || filters.stream().anyMatch(EventFilter::isAll)) {
+            return ALL;
+        }
+        var eventTypes = new HashSet<Class<? extends DomainEvent>>();
+        var aggregateTypes = new HashSet<Class<? extends AggregateRoot>>();
+        var anyEventType = false;
+        var anyAggregateType = false;
+        for (var filter : filters) {
+            anyEventType |= filter.eventTypes().isEmpty();
+            anyAggregateType |= filter.aggregateTypes().isEmpty();
+            eventTypes.addAll(filter.eventTypes());
+            aggregateTypes.addAll(filter.aggregateTypes());
+        }
+        return new EventFilter(anyEventType ? Set.of() : eventTypes, anyAggregateType ? Set.of() : aggregateTypes);
+    }
+
+    public boolean isAll() {
+        return eventTypes.isEmpty() && aggregateTypes.isEmpty();
+    }
+
+    /**
+     * Tells whether an event passes this filter, from its envelope alone.
+     */
+    public boolean matches(EventEnvelope envelope) {
+        return (eventTypes.isEmpty() || eventTypes.stream().anyMatch(envelope::isOfType))
+            && (aggregateTypes.isEmpty() || aggregateTypes.stream()
+                .anyMatch(aggregateType -> aggregateType.getSimpleName().equals(envelope.getAggregateType())));
+    }
+}
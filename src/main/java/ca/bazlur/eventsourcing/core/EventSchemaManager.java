@@ -5,12 +5,19 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 @ApplicationScoped
 public class EventSchemaManager {
     private static final Logger log = LoggerFactory.getLogger(EventSchemaManager.class);
     private final Map<String, Integer> currentVersions = new HashMap<>();
+    private final Map<Class<? extends DomainEvent>, String> typeIdsByClass = new ConcurrentHashMap<>();
+    private final Map<String, Class<? extends DomainEvent>> classesByTypeId = new ConcurrentHashMap<>();
+    private final Map<String, Class<? extends DomainEvent>> classesByEventType = new ConcurrentHashMap<>();
 
     public void registerEventType(Class<? extends DomainEvent> eventClass) {
         log.debug("Registering event type for class: {}", eventClass.getName());
@@ -24,6 +31,7 @@ public class EventSchemaManager {
         var version = schemaVersion.value();
 
         log.debug("Derived event type '{}' from class {}", eventType, eventClass.getSimpleName());
+        classesByEventType.put(eventType, eventClass);
 
         currentVersions.compute(eventType, (type, currentVersion) -> {
             if (currentVersion != null && currentVersion > version) {
@@ -37,6 +45,69 @@ public class EventSchemaManager {
         log.info("Registered event type {} with schema version {}", eventType, version);
     }
 
+    /**
+     * Registers an event type together with a compact type id. The id replaces the class name in
+     * stored payloads and in the event type column, so it must never change or be reused once
+     * events carrying it have been written. The schema version travels separately in the payload.
+     *
+     * @param eventClass the event class
+     * @param typeId     the stable id of the event type
+     */
+    public void registerEventType(Class<? extends DomainEvent> eventClass, int typeId) {
+        if (typeId <= 0) {
+            throw new EventSchemaException("Type id of " + eventClass.getSimpleName() + " must be positive: " + typeId);
+        }
+        registerEventType(eventClass);
+
+        var id = Integer.toString(typeId);
+        synchronized (typeIdsByClass) {
+            var previousClass = classesByTypeId.get(id);
+            if (previousClass != null && previousClass != eventClass) {
+                throw new EventSchemaException("Type id " + id + " of " + eventClass.getSimpleName()
+                    + " is already used by " + previousClass.getSimpleName());
+            }
+            var previousId = typeIdsByClass.get(eventClass);
+            if (previousId != null && !previousId.equals(id)) {
+                throw new EventSchemaException("Event type " + eventClass.getSimpleName()
+                    + " is already registered with type id " + previousId);
+            }
+            classesByTypeId.put(id, eventClass);
+            typeIdsByClass.put(eventClass, id);
+        }
+        log.info("Registered event type {} with type id {}", eventClass.getSimpleName(), id);
+    }
+
+    /**
+     * Finds the compact type id of an event class.
+     *
+     * @return the type id, or empty if the class was registered without one
+     */
+    public Optional<String> findTypeId(Class<?> eventClass) {
+        return Optional.ofNullable(typeIdsByClass.get(eventClass));
+    }
+
+    /**
+     * Finds the event class for a compact type id, or for an event type name as stored in the
+     * event type column before type ids existed.
+     *
+     * @return the event class, or empty if no event type uses the id
+     */
+    public Optional<Class<? extends DomainEvent>> findEventClass(String typeId) {
+        return Optional.<Class<? extends DomainEvent>>ofNullable(classesByTypeId.get(typeId))
+            .or(() -> Optional.ofNullable(classesByEventType.get(typeId)));
+    }
+
+    /**
+     * Gets every value the event type column can hold for an event class: its compact type id,
+     * if it has one, and the type name events were stored under before type ids existed.
+     */
+    public Set<String> findStoredEventTypes(Class<? extends DomainEvent> eventClass) {
+        var storedTypes = new LinkedHashSet<String>();
+        findTypeId(eventClass).ifPresent(storedTypes::add);
+        storedTypes.add(getEventType(eventClass));
+        return storedTypes;
+    }
+
     public void validateEvent(DomainEvent event) {
         log.debug("Validating event: {} of type {}", event.getClass().getSimpleName(), event.getEventType());
 
@@ -0,0 +1,31 @@
+package ca.bazlur.eventsourcing.core;
+
+/**
+ * Converts domain events to and from the payload stored in the event log.
+ * <p>
+ * The format name is stored with every event, so events written in one format can still be
+ * read after a deployment switches to another.
+ */
+public interface EventSerializer {
+
+    /**
+     * Gets the name stored with each event written by this serializer.
+     *
+     * @return the format name, unique among serializers
+     */
+    String getFormat();
+
+    /**
+     * Tells whether payloads are UTF-8 JSON text. Textual payloads are stored in the queryable
+     * {@code jsonb} column, binary ones in the {@code bytea} column.
+     *
+     * @return true if payloads are JSON text
+     */
+    default boolean isTextual() {
+        return false;
+    }
+
+    byte[] serialize(DomainEvent event);
+
+    DomainEvent deserialize(byte[] payload);
+}
@@ -1,18 +1,99 @@
 package ca.bazlur.eventsourcing.core;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface EventStore {
 
-    void appendEvents(String streamId, List<DomainEvent> events, long expectedVersion);
+    /**
+     * Appends events to a stream and assigns each one a position in the global log.
+     *
+     * @return the global position of the last appended event
+     */
+    long appendEvents(String streamId, List<DomainEvent> events, long expectedVersion);
 
     List<DomainEvent> getEvents(String streamId);
 
     List<DomainEvent> getEvents(String streamId, long fromVersion);
 
+    /**
+     * Streams the events of a stream in version order through a database cursor. Rows are fetched
+     * in chunks and each event is deserialized only when the stream reaches it, so memory stays
+     * flat however long the stream is. The returned stream holds the cursor open: consume it
+     * within the transaction that opened it and close it when done.
+     *
+     * @param fromVersion the first version to read; use 0 to read the whole stream
+     */
+    Stream<DomainEvent> streamEvents(String streamId, long fromVersion);
+
     List<DomainEvent> getAllEvents();
 
     List<DomainEvent> getAllEvents(int offset, int limit);
 
     List<DomainEvent> getAllEvents(long fromVersion);
+
+    /**
+     * Reads the global log with a position cursor instead of an offset.
+     * Each call is a single index range scan, so walking the whole log stays linear.
+     * Reads never go past {@link #getCommittedPosition()}, so a tailing reader cannot
+     * skip an append that commits after a later one.
+     *
+     * @param afterPosition the exclusive lower bound; use 0 to start from the beginning
+     * @param limit         the maximum number of events to return
+     * @return the next events in global order together with the cursor to resume from
+     */
+    EventBatch readAllEvents(long afterPosition, int limit);
+
+    /**
+     * Reads the global log like {@link #readAllEvents(long, int)}, but leaves every payload
+     * undecoded until a consumer asks for the event, so consumers that skip events by type or
+     * stream do not pay for deserializing them.
+     *
+     * @param afterPosition the exclusive lower bound; use 0 to start from the beginning
+     * @param limit         the maximum number of events to return
+     * @return the next envelopes in global order together with the cursor to resume from
+     */
+    default EnvelopeBatch readAllEnvelopes(long afterPosition, int limit) {
+        return readAllEnvelopes(afterPosition, limit, EventFilter.ALL);
+    }
+
+    /**
+     * Reads the events of the global log that pass a filter, which the store applies in its query,
+     * so events that do not match are never read. A batch shorter than the limit has seen everything
+     * up to the commit watermark, and reports the watermark as its last position, so the next read
+     * does not scan the non-matching events again.
+     *
+     * @param afterPosition the exclusive lower bound; use 0 to start from the beginning
+     * @param limit         the maximum number of events to return
+     * @param filter        the events to select
+     * @return the next matching envelopes in global order together with the cursor to resume from
+     */
+    EnvelopeBatch readAllEnvelopes(long afterPosition, int limit, EventFilter filter);
+
+    /**
+     * Streams the global log in position order through a database cursor, up to the
+     * {@link #getCommittedPosition() commit watermark} at the time of the call. Like
+     * {@link #streamEvents(String, long)}, it must be consumed within the opening transaction and closed.
+     *
+     * @param afterPosition the exclusive lower bound; use 0 to start from the beginning
+     */
+    default Stream<DomainEvent> streamAllEvents(long afterPosition) {
+        return streamAllEvents(afterPosition, EventFilter.ALL);
+    }
+
+    /**
+     * Streams the events of the global log that pass a filter, which the store applies in its query.
+     *
+     * @param afterPosition the exclusive lower bound; use 0 to start from the beginning
+     * @param filter        the events to select
+     */
+    Stream<DomainEvent> streamAllEvents(long afterPosition, EventFilter filter);
+
+    /**
+     * Gets the commit watermark of the global log: every position at or below it belongs to a
+     * committed append or to one that rolled back and will never appear.
+     *
+     * @return the highest position that is safe to read up to
+     */
+    long getCommittedPosition();
 }
@@ -0,0 +1,73 @@
+package ca.bazlur.eventsourcing.core;
+
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.DatabindContext;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.jsontype.impl.TypeIdResolverBase;
+
+import java.io.IOException;
+
+/**
+ * Writes the compact type id registered with {@link EventSchemaManager} as the {@code @type} of
+ * an event, instead of its fully qualified class name. Class names are still written for events
+ * registered without an id and still read, so payloads stored before type ids existed load as
+ * they did.
+ * <p>
+ * Jackson creates this resolver itself unless the mapper's handler instantiator supplies one
+ * with the schema manager; without it, the resolver falls back to class names only.
+ */
+public class EventTypeIdResolver extends TypeIdResolverBase {
+    private final EventSchemaManager schemaManager;
+    private JavaType baseType;
+
+    public EventTypeIdResolver() {
+        this(null);
+    }
+
+    public EventTypeIdResolver(EventSchemaManager schemaManager) {
+        this.schemaManager = schemaManager;
+    }
+
+    @Override
+    public void init(JavaType baseType) {
+        this.baseType = baseType;
+    }
+
+    @Override
+    public String idFromValue(Object value) {
+        return idFromValueAndType(value, value.getClass());
+    }
+
+    @Override
+    public String idFromValueAndType(Object value, Class<?> suggestedType) {
+        if (schemaManager != null) {
+            var typeId = schemaManager.findTypeId(suggestedType);
+            if (typeId.isPresent()) {
+                return typeId.get();
+            }
+        }
+        return suggestedType.getName();
+    }
+
+    @Override
+    public JavaType typeFromId(DatabindContext context, String id) throws IOException {
+        if (schemaManager != null) {
+            var eventClass = schemaManager.findEventClass(id);
+            if (eventClass.isPresent()) {
+                return context.constructSpecializedType(baseType, eventClass.get());
+            }
+        }
+        // Payloads written before type ids existed name the class
+        return context.resolveAndValidateSubType(baseType, id, context.getConfig().getPolymorphicTypeValidator());
+    }
+
+    @Override
+    public String getDescForKnownTypeIds() {
+        return "event type ids registered with EventSchemaManager, or event class names";
+    }
+
+    @Override
+    public JsonTypeInfo.Id getMechanism() {
+        return JsonTypeInfo.Id.CUSTOM;
+    }
+}
@@ -0,0 +1,15 @@
+package ca.bazlur.eventsourcing.core;
+
+/**
+ * Exception thrown when an append expects a stream version that is no longer its head,
+ * typically because another writer appended to the same stream first.
+ */
+public class OptimisticConcurrencyException extends EventStoreException {
+    public OptimisticConcurrencyException(String message) {
+        super(message);
+    }
+
+    public OptimisticConcurrencyException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -1,8 +1,123 @@
 package ca.bazlur.eventsourcing.core;
 
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A read model fed from the global log by the {@link ProjectionManager}.
+ * <p>
+ * Events are handed out as read: the instance a projection receives is the same one every other
+ * projection, and every rebuild lane, receives from that batch, possibly at the same time on other
+ * threads. Handlers must treat events as read-only and copy whatever they need to change.
+ */
 public interface Projection<T> {
+    /**
+     * Applies a single event to the read model. The event is shared and must not be modified.
+     *
+     * @param event the event to apply
+     */
     void handle(DomainEvent event);
     T getById(String id);
     void reset();
     String getProjectionName();
-}
\ No newline at end of file
+
+    /**
+     * Gets the version of the read model this projection builds. Bump it whenever the
+     * handling logic or the read-model shape changes; a checkpoint written by another
+     * version makes the projection rebuild on startup instead of resuming.
+     *
+     * @return the projection version
+     */
+    default int getProjectionVersion() {
+        return 1;
+    }
+
+    /**
+     * Gets the event types this projection reacts to. Only events of these types are read for it,
+     * and the store filters them in its query. The default, an empty set, means every event.
+     *
+     * @return the handled event types
+     */
+    default Set<Class<? extends DomainEvent>> getHandledEventTypes() {
+        return Set.of();
+    }
+
+    /**
+     * Gets the filter for the events this projection is fed. Override it to narrow by aggregate
+     * type as well; the default selects the {@link #getHandledEventTypes() handled event types}.
+     *
+     * @return the filter the projection's events are read with
+     */
+    default EventFilter getEventFilter() {
+        return EventFilter.forEventTypes(getHandledEventTypes());
+    }
+
+    /**
+     * Tells whether an event should be handed to this projection, from its envelope alone.
+     *
+     * @param envelope the event as read from the log
+     * @return true if the event passes the projection's filter
+     */
+    default boolean handles(EventEnvelope envelope) {
+        return getEventFilter().matches(envelope);
+    }
+
+    /**
+     * Applies a batch of events in global order while the projection is being rebuilt.
+     * Projections that can fold a batch and write it with set-based statements should
+     * override this; the default applies the events one by one.
+     *
+     * @param events the events to apply, in global order; they are shared and must not be modified
+     */
+    default void handleBatch(List<DomainEvent> events) {
+        events.forEach(this::handle);
+    }
+
+    /**
+     * Tells whether applying an event the read model already reflects leaves it unchanged, for
+     * instance because the projection skips events at or below the version it holds for the
+     * aggregate. A rebuild only runs on parallel lanes for such a projection: lanes commit on
+     * their own, so a crash part-way through a batch replays the events of the lanes that had
+     * already committed.
+     *
+     * @return true if replaying already applied events is harmless
+     */
+    default boolean isIdempotent() {
+        return false;
+    }
+
+    /**
+     * Starts a rebuild from the beginning of the log. The default wipes the read model in place;
+     * a projection that can build into a separate copy should override this together with
+     * {@link #rebuildsInShadow()} and {@link #completeRebuild()}, so reads keep being served
+     * from the current model until the new one is complete.
+     */
+    default void prepareRebuild() {
+        reset();
+    }
+
+    /**
+     * Finishes a rebuild once the projection has caught up with the log. Runs in the same
+     * transaction that records the projection's checkpoint.
+     */
+    default void completeRebuild() {
+    }
+
+    /**
+     * Gives up on a rebuild that failed before {@link #completeRebuild()}, so the projection goes
+     * back to serving and updating its current read model. A projection that rebuilds in shadow
+     * should discard the copy here; the default does nothing.
+     */
+    default void abortRebuild() {
+    }
+
+    /**
+     * Tells whether a rebuild leaves the current read model untouched until {@link #completeRebuild()}.
+     * The checkpoint of such a projection keeps describing the current read model while it rebuilds.
+     *
+     * @return true if the projection rebuilds into a separate copy of its read model
+     */
+    default boolean rebuildsInShadow() {
+        return false;
+    }
+}
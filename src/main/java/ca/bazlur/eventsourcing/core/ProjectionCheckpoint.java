@@ -0,0 +1,11 @@
+package ca.bazlur.eventsourcing.core;
+
+/**
+ * The durable progress of a projection through the global event log.
+ *
+ * @param projectionName    the name of the projection
+ * @param projectionVersion the projection version the read model was built with
+ * @param position          the global position of the last event applied to the read model
+ */
+public record ProjectionCheckpoint(String projectionName, int projectionVersion, long position) {
+}
@@ -0,0 +1,25 @@
+package ca.bazlur.eventsourcing.core;
+
+import java.util.Optional;
+
+/**
+ * Persists projection checkpoints. Implementations must join the caller's transaction so a
+ * checkpoint commits atomically with the read-model writes it describes.
+ */
+public interface ProjectionCheckpointStore {
+
+    /**
+     * Finds the checkpoint of a projection.
+     *
+     * @param projectionName the name of the projection
+     * @return the checkpoint, or empty if the projection has never been built
+     */
+    Optional<ProjectionCheckpoint> findCheckpoint(String projectionName);
+
+    /**
+     * Creates or moves the checkpoint of a projection.
+     *
+     * @param checkpoint the new checkpoint
+     */
+    void saveCheckpoint(ProjectionCheckpoint checkpoint);
+}
@@ -1,134 +1,234 @@
 package ca.bazlur.eventsourcing.core;
 
+import io.quarkus.narayana.jta.QuarkusTransaction;
 import jakarta.annotation.PostConstruct;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.enterprise.inject.Instance;
 import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
 
 @ApplicationScoped
 public class ProjectionManager {
     private static final Logger log = LoggerFactory.getLogger(ProjectionManager.class);
+    private static final int BATCH_SIZE = 500;
 
     private final EventStore eventStore;
+    private final ProjectionCheckpointStore checkpointStore;
     private final List<Projection<?>> projections;
-    private final ConcurrentMap<String, Long> lastProcessedEventVersions = new ConcurrentHashMap<>();
+    private final int rebuildLanes;
+    private final Set<String> rebuildsInProgress = ConcurrentHashMap.newKeySet();
+    private final Map<String, RebuildLock> rebuildLocks;
 
     @Inject
-    public ProjectionManager(EventStore eventStore, Instance<Projection<?>> projections) {
+    public ProjectionManager(EventStore eventStore,
+                             ProjectionCheckpointStore checkpointStore,
+                             Instance<Projection<?>> projections,
+                             @ConfigProperty(name = "projection.rebuild.lanes", defaultValue = "4") int rebuildLanes) {
+        if (rebuildLanes < 1) {
+            throw new IllegalArgumentException("Projection rebuild lanes must be at least 1");
+        }
         this.eventStore = eventStore;
+        this.checkpointStore = checkpointStore;
         this.projections = projections.stream().toList();
+        this.rebuildLanes = rebuildLanes;
+        this.rebuildLocks = this.projections.stream()
+            .collect(Collectors.toMap(Projection::getProjectionName, projection -> new RebuildLock()));
     }
 
+    /**
+     * Resumes every projection from its persisted checkpoint. A projection is only rebuilt
+     * from scratch when it has no checkpoint yet or its version has changed.
+     */
     @PostConstruct
     public void initialize() {
-        rebuildAllProjections();
+        log.info("Starting projections from their checkpoints...");
+
+        var cursors = projections.stream()
+            .map(this::startPosition)
+            .flatMap(Optional::stream)
+            .toList();
+        catchUp(cursors);
+
+        log.info("All projections started successfully");
     }
 
-    private static final int BATCH_SIZE = 500;
+    /**
+     * @return the cursor, or empty if the projection is already being rebuilt by another pass
+     */
+    private Optional<ProjectionCursor> startPosition(Projection<?> projection) {
+        var projectionName = projection.getProjectionName();
+        // Taken before the checkpoint is read, so a rebuild that rewinds it after this point is noticed
+        var rebuildGeneration = rebuildLocks.get(projectionName).generation;
+        var checkpoint = QuarkusTransaction.requiringNew().call(() -> checkpointStore.findCheckpoint(projectionName));
+
+        if (checkpoint.isEmpty()) {
+            log.info("No checkpoint for projection: {}, building it from scratch", projectionName);
+            return startRebuild(projection);
+        }
+        if (checkpoint.get().projectionVersion() != projection.getProjectionVersion()) {
+            log.info("Projection {} changed from version {} to {}, rebuilding",
+                projectionName, checkpoint.get().projectionVersion(), projection.getProjectionVersion());
+            return startRebuild(projection);
+        }
+
+        log.debug("Resuming projection: {} from position {}", projectionName, checkpoint.get().position());
+        return Optional.of(new ProjectionCursor(projection, checkpoint.get().position(), false, rebuildGeneration));
+    }
 
     public void rebuildAllProjections() {
         log.info("Rebuilding all projections...");
 
-        projections.parallelStream().forEach(projection -> {
-            try {
-                rebuildProjection(projection);
-            } catch (Exception e) {
-                log.error("Failed to rebuild projection: {}", projection.getProjectionName(), e);
-                throw new ProjectionRebuildException("Failed to rebuild projection: " + projection.getProjectionName(), e);
-            }
-        });
+        var cursors = projections.stream()
+            .map(this::startRebuild)
+            .flatMap(Optional::stream)
+            .toList();
+        catchUp(cursors);
 
         log.info("All projections rebuilt successfully");
     }
 
-    private void rebuildProjection(Projection<?> projection) {
-        log.info("Rebuilding projection: {}", projection.getProjectionName());
-        projection.reset();
-
-        int offset = 0;
-        long lastVersion = 0;
-        int totalEvents = 0;
-
-        while (true) {
-            var events = eventStore.getAllEvents(offset, BATCH_SIZE);
-            if (events.isEmpty()) {
-                break;
+    /**
+     * Claims the projection for a rebuild and starts it. The claim is made under the projection's
+     * rebuild lock, which every live batch also holds, so a live pass either finishes its batch
+     * before the read model is wiped or sees the claim and stops.
+     *
+     * @return the rebuild cursor, or empty if the projection is already being rebuilt
+     */
+    private Optional<ProjectionCursor> startRebuild(Projection<?> projection) {
+        var projectionName = projection.getProjectionName();
+        var rebuildLock = rebuildLocks.get(projectionName);
+        rebuildLock.lock();
+        try {
+            if (!rebuildsInProgress.add(projectionName)) {
+                log.info("Projection {} is already being rebuilt", projectionName);
+                return Optional.empty();
             }
+            rebuildLock.generation++;
+            log.info("Rebuilding projection: {}", projectionName);
 
-            events.forEach(projection::handle);
-            lastVersion = events.getLast().getVersion();
-            totalEvents += events.size();
-            offset += events.size();
-
-            log.debug("Processed batch of {} events for projection: {}", 
-                events.size(), projection.getProjectionName());
-
-            if (events.size() < BATCH_SIZE) {
-                break;
-            }
+            QuarkusTransaction.requiringNew().run(() -> {
+                projection.prepareRebuild();
+                if (!projection.rebuildsInShadow()) {
+                    // Wipe the read model and rewind the checkpoint together, so a crash mid-rebuild
+                    // can never resume an empty read model from an old position
+                    checkpointStore.saveCheckpoint(new ProjectionCheckpoint(
+                        projectionName, projection.getProjectionVersion(), 0L));
+                }
+            });
+            return Optional.of(new ProjectionCursor(projection, 0L, true, rebuildLock.generation));
+        } catch (Exception e) {
+            abortRebuild(projection);
+            rebuildsInProgress.remove(projectionName);
+            log.error("Failed to rebuild projection: {}", projectionName, e);
+            throw new ProjectionRebuildException("Failed to rebuild projection: " + projectionName, e);
+        } finally {
+            rebuildLock.unlock();
         }
+    }
 
-        lastProcessedEventVersions.put(projection.getProjectionName(), lastVersion);
-        log.info("Rebuilt projection: {} with {} events", 
-            projection.getProjectionName(), totalEvents);
+    // Best effort: a projection left half-aborted is set straight by its next rebuild
+    private void abortRebuild(Projection<?> projection) {
+        try {
+            QuarkusTransaction.requiringNew().run(projection::abortRebuild);
+        } catch (Exception e) {
+            log.error("Failed to abort rebuild of projection: {}", projection.getProjectionName(), e);
+        }
     }
 
+    /**
+     * Feeds new events to every projection that is not being rebuilt; a rebuilding projection
+     * catches up on its own before it goes live again. Each projection resumes from its persisted
+     * checkpoint, and is rebuilt like on startup if it has none or its version has changed.
+     */
     public CompletableFuture<Void> processNewEvents() {
         return CompletableFuture.runAsync(() -> {
-            projections.parallelStream().forEach(this::processNewEventsForProjection);
+            var cursors = projections.stream()
+                .filter(projection -> !rebuildsInProgress.contains(projection.getProjectionName()))
+                .map(this::startPosition)
+                .flatMap(Optional::stream)
+                .toList();
+            catchUp(cursors);
         });
     }
 
-    private void processNewEventsForProjection(Projection<?> projection) {
-        try {
-            var projectionName = projection.getProjectionName();
-            var lastProcessedVersion = lastProcessedEventVersions.getOrDefault(projectionName, 0L);
+    /**
+     * Walks the log once for all projections: each batch is read a single time, starting from the
+     * slowest projection, and handed to every projection that has not seen it yet. The store only
+     * returns events some projection handles, and each is deserialized once for all of them.
+     * Each projection commits its own writes and checkpoint, so one failing projection does not
+     * hold back the others.
+     */
+    private void catchUp(Collection<ProjectionCursor> cursors) {
+        var active = new ArrayList<>(cursors);
+        var failed = new ArrayList<String>();
+        var position = active.stream()
+            .mapToLong(ProjectionCursor::position)
+            .min()
+            .orElse(0L);
+        int totalEvents = 0;
 
-            int offset = 0;
-            long currentVersion = lastProcessedVersion;
+        while (!active.isEmpty()) {
+            var from = position;
+            // Only read what at least one of the projections still catching up handles
+            var filter = EventFilter.union(active.stream()
+                .map(cursor -> cursor.projection().getEventFilter())
+                .toList());
+            var batch = QuarkusTransaction.requiringNew().call(() -> eventStore.readAllEnvelopes(from, BATCH_SIZE, filter));
 
-            while (true) {
-                var newEvents = eventStore.getAllEvents(offset, BATCH_SIZE);
-                if (newEvents.isEmpty()) {
-                    break;
-                }
+            // Even an empty batch is applied: a filtered read reports how far it looked, and the
+            // cursors move past the range it found nothing in instead of rescanning it next pass
+            active.parallelStream()
+                .filter(cursor -> !cursor.apply(batch))
+                .toList()
+                .forEach(cursor -> {
+                    active.remove(cursor);
+                    failed.add(cursor.fail());
+                });
+            active.removeIf(ProjectionCursor::superseded);
 
-                var eventsToProcess = newEvents.stream()
-                    .filter(event -> event.getVersion() > lastProcessedVersion)
-                    .toList();
+            position = batch.lastPosition();
+            totalEvents += batch.size();
 
-                if (eventsToProcess.isEmpty()) {
-                    break;
-                }
+            log.debug("Processed batch of {} events for {} projections", batch.size(), active.size());
 
-                log.debug("Processing batch of {} new events for projection: {}", 
-                    eventsToProcess.size(), projectionName);
-
-                eventsToProcess.forEach(projection::handle);
-                currentVersion = eventsToProcess.getLast().getVersion();
+            if (batch.size() < BATCH_SIZE) {
+                break;
+            }
+        }
 
-                if (newEvents.size() < BATCH_SIZE) {
-                    break;
-                }
+        active.stream()
+            .filter(cursor -> !cursor.completeRebuild())
+            .toList()
+            .forEach(cursor -> {
+                active.remove(cursor);
+                failed.add(cursor.fail());
+            });
 
-                offset += BATCH_SIZE;
+        for (var cursor : active) {
+            if (cursor.position() > cursor.startPosition()) {
+                log.info("Updated projection {} to position {}", cursor.projection().getProjectionName(), cursor.position());
             }
+        }
+        log.debug("Read {} events up to position {}", totalEvents, position);
 
-            if (currentVersion > lastProcessedVersion) {
-                lastProcessedEventVersions.put(projectionName, currentVersion);
-                log.info("Updated projection {} to version {}", projectionName, currentVersion);
-            }
-        } catch (Exception e) {
-            log.error("Failed to process new events for projection: {}", projection.getProjectionName(), e);
-            throw new ProjectionRebuildException("Failed to process new events for projection: " + 
-                projection.getProjectionName(), e);
+        if (!failed.isEmpty()) {
+            throw new ProjectionRebuildException("Failed to process new events for projections: " + failed);
         }
     }
 
@@ -140,4 +240,196 @@ public class ProjectionManager {
             .orElseThrow(() -> new IllegalArgumentException(
                 "Projection not found: " + projectionClass.getSimpleName()));
     }
+
+    /**
+     * Serializes the live batches of a projection with the start of its rebuilds, and counts the
+     * rebuilds started, so a live pass can tell whether one began after it read its checkpoint.
+     */
+    private static final class RebuildLock extends ReentrantLock {
+        // Only changes while the lock is held
+        private volatile long generation;
+    }
+
+    /**
+     * A projection fed by the shared reader, together with its own progress through the log.
+     * While an {@link Projection#isIdempotent() idempotent} projection rebuilds, a batch is split
+     * into lanes by stream id: events of one aggregate stay in order on one lane, and lanes run
+     * concurrently on virtual threads. Any other projection rebuilds one batch per transaction. A projection that
+     * rebuilds in shadow only records its checkpoint once the rebuilt model is swapped in.
+     */
+    private final class ProjectionCursor {
+        private final Projection<?> projection;
+        private final boolean rebuilding;
+        private final boolean deferCheckpoint;
+        private final long startPosition;
+        private final long rebuildGeneration;
+        private volatile long position;
+        private volatile boolean superseded;
+
+        ProjectionCursor(Projection<?> projection, long position, boolean rebuilding, long rebuildGeneration) {
+            this.projection = projection;
+            this.startPosition = position;
+            this.position = position;
+            this.rebuilding = rebuilding;
+            this.rebuildGeneration = rebuildGeneration;
+            this.deferCheckpoint = rebuilding && projection.rebuildsInShadow();
+        }
+
+        Projection<?> projection() {
+            return projection;
+        }
+
+        long startPosition() {
+            return startPosition;
+        }
+
+        long position() {
+            return position;
+        }
+
+        /**
+         * Tells whether a rebuild took this projection over during the pass, which then leaves it alone.
+         */
+        boolean superseded() {
+            return superseded;
+        }
+
+        /**
+         * Applies the part of the batch this projection has not seen yet and moves its checkpoint.
+         *
+         * @return false if the projection failed and should be dropped from this pass
+         */
+        boolean apply(EnvelopeBatch batch) {
+            if (batch.lastPosition() <= position) {
+                return true;
+            }
+            if (rebuilding) {
+                return applyBatch(batch);
+            }
+            var rebuildLock = rebuildLocks.get(projection.getProjectionName());
+            rebuildLock.lock();
+            try {
+                // A rebuild claimed since this pass read the checkpoint may have wiped the model and
+                // rewound the checkpoint; writing now would mix old events into it and undo the rewind
+                if (rebuildsInProgress.contains(projection.getProjectionName())
+                        || rebuildLock.generation != rebuildGeneration) {
+                    log.info("Projection {} is being rebuilt, leaving it out of this pass", projection.getProjectionName());
+                    superseded = true;
+                    return true;
+                }
+                return applyBatch(batch);
+            } finally {
+                rebuildLock.unlock();
+            }
+        }
+
+        private boolean applyBatch(EnvelopeBatch batch) {
+            var from = position;
+            try {
+                // Envelopes are shared with the other projections, so whichever asks first decodes,
+                // and all of them get the same event instance; the Projection contract keeps it read-only
+                var pending = batch.envelopes().stream()
+                    .filter(envelope -> envelope.getGlobalPosition() > from)
+                    .filter(projection::handles)
+                    .map(EventEnvelope::getEvent)
+                    .toList();
+                if (rebuilding && rebuildLanes > 1 && projection.isIdempotent()) {
+                    applyInLanes(pending);
+                    if (!deferCheckpoint) {
+                        // Every lane has passed the end of the batch; only now is the position safe to record
+                        QuarkusTransaction.requiringNew().run(() -> saveCheckpoint(batch.lastPosition()));
+                    }
+                } else {
+                    // Read-model writes and the checkpoint commit together
+                    QuarkusTransaction.requiringNew().run(() -> {
+                        if (rebuilding) {
+                            if (!pending.isEmpty()) {
+                                projection.handleBatch(pending);
+                            }
+                        } else {
+                            pending.forEach(projection::handle);
+                        }
+                        if (!deferCheckpoint) {
+                            saveCheckpoint(batch.lastPosition());
+                        }
+                    });
+                }
+                position = batch.lastPosition();
+                return true;
+            } catch (Exception e) {
+                log.error("Failed to process new events for projection: {}", projection.getProjectionName(), e);
+                return false;
+            }
+        }
+
+        /**
+         * Puts a rebuilt projection live: the rebuilt model and its checkpoint commit together.
+         *
+         * @return false if the projection failed and should be dropped from this pass
+         */
+        boolean completeRebuild() {
+            if (!rebuilding) {
+                return true;
+            }
+            try {
+                QuarkusTransaction.requiringNew().run(() -> {
+                    projection.completeRebuild();
+                    saveCheckpoint(position);
+                });
+                rebuildsInProgress.remove(projection.getProjectionName());
+                log.info("Projection {} rebuilt up to position {}", projection.getProjectionName(), position);
+                return true;
+            } catch (Exception e) {
+                log.error("Failed to complete rebuild of projection: {}", projection.getProjectionName(), e);
+                return false;
+            }
+        }
+
+        /**
+         * Gives up on this pass, letting the live path pick the projection up again from its
+         * checkpoint. A failed rebuild is aborted first: a shadow rebuild leaves the live model and
+         * its checkpoint as they were; an in-place rebuild resumes from the last batch it committed.
+         *
+         * @return the name of the failed projection
+         */
+        String fail() {
+            var projectionName = projection.getProjectionName();
+            if (rebuilding) {
+                abortRebuild(projection);
+                // Only the rebuild holds the claim; a failing live pass must not release another pass's
+                rebuildsInProgress.remove(projectionName);
+            }
+            return projectionName;
+        }
+
+        // A crash after some lanes commit replays their events on restart, which is why only
+        // idempotent projections are rebuilt this way
+        private void applyInLanes(List<DomainEvent> events) throws InterruptedException, ExecutionException {
+            var lanes = new ArrayList<List<DomainEvent>>(rebuildLanes);
+            for (int i = 0; i < rebuildLanes; i++) {
+                lanes.add(new ArrayList<>());
+            }
+            for (var event : events) {
+                lanes.get(Math.floorMod(event.getAggregateId().hashCode(), rebuildLanes)).add(event);
+            }
+
+            try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                var futures = new ArrayList<Future<?>>();
+                for (var lane : lanes) {
+                    if (!lane.isEmpty()) {
+                        futures.add(executor.submit(() ->
+                            QuarkusTransaction.requiringNew().run(() -> projection.handleBatch(lane))));
+                    }
+                }
+                for (var future : futures) {
+                    future.get();
+                }
+            }
+        }
+
+        private void saveCheckpoint(long checkpointPosition) {
+            checkpointStore.saveCheckpoint(new ProjectionCheckpoint(
+                projection.getProjectionName(), projection.getProjectionVersion(), checkpointPosition));
+        }
+    }
 }
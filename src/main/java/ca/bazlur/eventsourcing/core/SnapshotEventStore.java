@@ -7,9 +7,9 @@ import java.util.Optional;
  * This interface provides methods for loading and storing aggregate state snapshots
  * to optimize aggregate reconstruction.
  *
- * Snapshots are automatically created during event appending when the snapshot strategy
- * determines it's appropriate (e.g., after a certain number of events). This happens
- * in the appendEvents method.
+ * Snapshots are automatically requested during event appending when the append crosses a
+ * snapshot boundary of the strategy (e.g., every N events). They are written in the background
+ * after the append commits, so appending never waits on snapshot I/O.
  *
  * The interface also provides methods for manual snapshot management when needed:
  * - createSnapshotIfNeeded: Checks the strategy and creates a snapshot if needed
@@ -0,0 +1,76 @@
+package ca.bazlur.eventsourcing.infrastructure;
+
+import ca.bazlur.eventsourcing.core.AggregateFactory;
+import ca.bazlur.eventsourcing.core.AggregateRoot;
+import ca.bazlur.eventsourcing.core.DomainEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Maps event classes to the aggregate type that emits them, with a factory for that aggregate,
+ * so the event store can rebuild an aggregate from a stream without reflection.
+ */
+@ApplicationScoped
+public class AggregateRegistry {
+    private static final Logger log = LoggerFactory.getLogger(AggregateRegistry.class);
+
+    private final Map<Class<? extends DomainEvent>, AggregateType<?>> aggregateTypesByEvent = new ConcurrentHashMap<>();
+
+    /**
+     * Registers an aggregate type together with the event classes it emits.
+     *
+     * @param aggregateClass the aggregate class
+     * @param factory        creates an empty aggregate for an ID
+     * @param eventClasses   the event classes the aggregate emits
+     */
+    public <T extends AggregateRoot> void register(Class<T> aggregateClass, AggregateFactory<T> factory,
+                                                   List<Class<? extends DomainEvent>> eventClasses) {
+        var aggregateType = new AggregateType<>(aggregateClass, factory);
+        for (var eventClass : eventClasses) {
+            var previous = aggregateTypesByEvent.putIfAbsent(eventClass, aggregateType);
+            if (previous != null && previous.aggregateClass() != aggregateClass) {
+                throw new IllegalStateException("Event " + eventClass.getSimpleName() + " is already registered for "
+                    + previous.aggregateClass().getSimpleName());
+            }
+        }
+        log.info("Registered aggregate type {} for {} event types", aggregateClass.getSimpleName(), eventClasses.size());
+    }
+
+    /**
+     * Finds the aggregate type that emits the given event class.
+     *
+     * @param eventClass the event class
+     * @return the aggregate type, or empty if none is registered for the event
+     */
+    public Optional<AggregateType<?>> findByEvent(Class<? extends DomainEvent> eventClass) {
+        return Optional.ofNullable(aggregateTypesByEvent.get(eventClass));
+    }
+
+    /**
+     * Finds the event classes registered for any of the given aggregate types.
+     *
+     * @param aggregateClasses the aggregate classes
+     * @return the event classes they emit, empty if none is registered
+     */
+    public Set<Class<? extends DomainEvent>> findEventTypes(Collection<Class<? extends AggregateRoot>> aggregateClasses) {
+        return aggregateTypesByEvent.entrySet().stream()
+            .filter(entry -> aggregateClasses.contains(entry.getValue().aggregateClass()))
+            .map(Map.Entry::getKey)
+            .collect(Collectors.toSet());
+    }
+
+    public record AggregateType<T extends AggregateRoot>(Class<T> aggregateClass, AggregateFactory<T> factory) {
+        public T create(String aggregateId) {
+            return factory.create(aggregateId);
+        }
+    }
+}
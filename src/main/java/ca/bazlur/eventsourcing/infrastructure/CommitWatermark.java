@@ -0,0 +1,148 @@
+package ca.bazlur.eventsourcing.infrastructure;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Tracks the highest global position below which every append has committed.
+ * <p>
+ * Positions are reserved from a sequence before the appending transaction commits, so concurrent
+ * appends can become visible out of order. A reader that jumps over a hole could skip the missing
+ * events for good once their transaction commits. This tracker only advances past a hole when it
+ * is known to be permanent:
+ * <ul>
+ *   <li>when a hole is first seen, the snapshot {@code xmax} is recorded. The transaction that
+ *       reserved the missing position already had its xid (see
+ *       {@code JpaEventStore#allocateGlobalPositions}), so that xid is below the recorded value;</li>
+ *   <li>once the oldest running xid ({@code xmin}) has passed the recorded value, that transaction
+ *       has finished. A hole that is still there on the next scan was rolled back and is skipped.</li>
+ * </ul>
+ * The same argument lets a fresh tracker jump straight to the head of an existing log instead of
+ * scanning it from the start: every position up to the visible maximum was reserved by a
+ * transaction older than that snapshot's {@code xmax}.
+ * <p>
+ * Each call scans at most {@value #SCAN_SIZE} positions, so a tracker that is far behind, for
+ * instance while the seed waits for older transactions to finish, catches up over several calls
+ * rather than in one. Only one caller advances the watermark at a time; the others get the last
+ * value it published instead of waiting for it.
+ */
+@ApplicationScoped
+public class CommitWatermark {
+    private static final Logger log = LoggerFactory.getLogger(CommitWatermark.class);
+    private static final int SCAN_SIZE = 1000;
+
+    private final EntityManager entityManager;
+    private final ReentrantLock advancing = new ReentrantLock();
+
+    // Start of each open hole mapped to the snapshot xmax observed when it was first seen
+    private final NavigableMap<Long, Long> openGaps = new TreeMap<>();
+    private long watermark;
+    private long seedPosition = -1;
+    private long seedXmax;
+    private volatile long published;
+
+    @Inject
+    public CommitWatermark(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Advances the watermark as far as the committed, gap-free prefix of the log allows, scanning
+     * at most {@value #SCAN_SIZE} positions.
+     *
+     * @return the highest position that is safe to read up to
+     */
+    public long current() {
+        if (!advancing.tryLock()) {
+            // Another reader is advancing it; the last published value is behind, but just as safe
+            return published;
+        }
+        try {
+            seedFromHead();
+            advance();
+            published = watermark;
+            return watermark;
+        } finally {
+            advancing.unlock();
+        }
+    }
+
+    private void advance() {
+        // Read xmin before scanning: a hole whose writer finished by now is either filled
+        // in the scan below or was rolled back.
+        var xmin = openGaps.isEmpty() ? 0L : currentXmin();
+        for (var position : positionsAfter(watermark)) {
+            if (position == watermark + 1) {
+                watermark = position;
+                continue;
+            }
+
+            var gapStart = watermark + 1;
+            var seenAtXmax = openGaps.get(gapStart);
+            if (seenAtXmax != null && xmin >= seenAtXmax) {
+                log.debug("Skipping rolled back positions {} to {}", gapStart, position - 1);
+                openGaps.remove(gapStart);
+                watermark = position;
+                continue;
+            }
+            if (seenAtXmax == null) {
+                // Read xmax after scanning so it covers the writer of the missing position
+                openGaps.put(gapStart, currentXmax());
+                log.debug("Holding watermark at {} until positions from {} commit or roll back",
+                    watermark, gapStart);
+            }
+            break;
+        }
+        openGaps.headMap(watermark, true).clear();
+    }
+
+    private void seedFromHead() {
+        if (watermark == 0 && seedPosition < 0) {
+            var row = (Object[]) entityManager.createNativeQuery(
+                            "SELECT COALESCE(MAX(global_position), 0), " +
+                            "CAST(CAST(pg_snapshot_xmax(pg_current_snapshot()) AS text) AS bigint) FROM events")
+                    .getSingleResult();
+            seedPosition = ((Number) row[0]).longValue();
+            seedXmax = ((Number) row[1]).longValue();
+        }
+        if (seedPosition >= 0 && currentXmin() >= seedXmax) {
+            watermark = Math.max(watermark, seedPosition);
+            openGaps.headMap(watermark, true).clear();
+            log.debug("Seeded commit watermark at position {}", watermark);
+            seedPosition = -1;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Long> positionsAfter(long position) {
+        List<Number> values = entityManager.createNativeQuery(
+                        "SELECT global_position FROM events WHERE global_position > :position " +
+                        "ORDER BY global_position LIMIT :limit")
+                .setParameter("position", position)
+                .setParameter("limit", SCAN_SIZE)
+                .getResultList();
+        return values.stream()
+                .map(Number::longValue)
+                .toList();
+    }
+
+    private long currentXmin() {
+        return ((Number) entityManager.createNativeQuery(
+                        "SELECT CAST(CAST(pg_snapshot_xmin(pg_current_snapshot()) AS text) AS bigint)")
+                .getSingleResult()).longValue();
+    }
+
+    private long currentXmax() {
+        return ((Number) entityManager.createNativeQuery(
+                        "SELECT CAST(CAST(pg_snapshot_xmax(pg_current_snapshot()) AS text) AS bigint)")
+                .getSingleResult()).longValue();
+    }
+}
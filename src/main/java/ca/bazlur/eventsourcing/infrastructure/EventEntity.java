@@ -12,14 +12,20 @@ import java.time.Instant;
 @Getter
 @Entity
 @Table(name = "events",
-    uniqueConstraints = @UniqueConstraint(
-        columnNames = {"stream_id", "version"},
-        name = "uk_events_stream_version"))
+    uniqueConstraints = {
+        @UniqueConstraint(
+            columnNames = {"stream_id", "version"},
+            name = "uk_events_stream_version"),
+        @UniqueConstraint(
+            columnNames = {"global_position"},
+            name = "uk_events_global_position")
+    })
 public class EventEntity {
 
     // Getters and setters
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "events_id_seq")
+    @SequenceGenerator(name = "events_id_seq", sequenceName = "events_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "event_id", unique = true, nullable = false, length = 36)
@@ -31,13 +37,34 @@ public class EventEntity {
     @Column(name = "event_type", nullable = false)
     private String eventType;
 
+    // Simple name of the aggregate type that emitted the event; null for events written before it was recorded
+    @Column(name = "aggregate_type", length = 64)
+    private String aggregateType;
+
+    // Set for textual payload formats, so the event stays queryable as JSON
     @JdbcTypeCode(SqlTypes.JSON)
-    @Column(name = "event_data", columnDefinition = "jsonb", nullable = false)
+    @Column(name = "event_data", columnDefinition = "jsonb")
     private String eventData;
 
+    // Set for binary payload formats, or compressed payloads, instead of event_data
+    @Column(name = "payload")
+    private byte[] payload;
+
+    // Serializer that wrote the event; null for events written before formats were recorded
+    @Column(name = "payload_format", length = 16)
+    private String payloadFormat;
+
+    // Codec the payload column is compressed with; null when it is not compressed
+    @Column(name = "payload_codec", length = 16)
+    private String payloadCodec;
+
     @Column(name = "version", nullable = false)
     private Long version;
 
+    // Store-assigned position in the global log, allocated from the column's sequence at append time
+    @Column(name = "global_position", nullable = false, updatable = false, columnDefinition = "bigserial")
+    private Long globalPosition;
+
     @Column(name = "timestamp", nullable = false)
     private Instant timestamp;
 
@@ -51,12 +78,13 @@ public class EventEntity {
     public EventEntity() {}
 
     public EventEntity(String eventId, String streamId, String eventType, String eventData, 
-                      Long version, Instant timestamp, String correlationId, String causationId) {
+                      Long version, Long globalPosition, Instant timestamp, String correlationId, String causationId) {
         this.eventId = eventId;
         this.streamId = streamId;
         this.eventType = eventType;
         this.eventData = eventData;
         this.version = version;
+        this.globalPosition = globalPosition;
         this.timestamp = timestamp;
         this.correlationId = correlationId;
         this.causationId = causationId;
@@ -1,6 +1,7 @@
 package ca.bazlur.eventsourcing.infrastructure;
 
 import ca.bazlur.eventsourcing.core.EventSchemaManager;
+import ca.bazlur.eventsourcing.domain.order.Order;
 import ca.bazlur.eventsourcing.domain.order.events.OrderCreatedEvent;
 import ca.bazlur.eventsourcing.domain.order.events.OrderItemAddedEvent;
 import jakarta.enterprise.context.ApplicationScoped;
@@ -10,14 +11,18 @@ import jakarta.enterprise.event.Observes;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.List;
+
 @ApplicationScoped
 public class EventRegistry {
     private static final Logger log = LoggerFactory.getLogger(EventRegistry.class);
     private final EventSchemaManager schemaManager;
+    private final AggregateRegistry aggregateRegistry;
 
     @Inject
-    public EventRegistry(EventSchemaManager schemaManager) {
+    public EventRegistry(EventSchemaManager schemaManager, AggregateRegistry aggregateRegistry) {
         this.schemaManager = schemaManager;
+        this.aggregateRegistry = aggregateRegistry;
     }
 
     void onStart(@Observes StartupEvent evt) {
@@ -26,14 +31,18 @@ public class EventRegistry {
         try {
             // Order events
             log.debug("Registering OrderCreatedEvent...");
-            schemaManager.registerEventType(OrderCreatedEvent.class);
+            schemaManager.registerEventType(OrderCreatedEvent.class, 1);
             log.debug("Successfully registered OrderCreatedEvent");
 
             log.debug("Registering OrderItemAddedEvent...");
-            schemaManager.registerEventType(OrderItemAddedEvent.class);
+            schemaManager.registerEventType(OrderItemAddedEvent.class, 2);
             log.debug("Successfully registered OrderItemAddedEvent");
 
-            // Add other event types here as they are created
+            aggregateRegistry.register(Order.class, Order::new,
+                    List.of(OrderCreatedEvent.class, OrderItemAddedEvent.class));
+
+            // Add other event types here as they are created, each with the next unused type id.
+            // Type ids are stored with every event: never change or reuse one.
 
             log.info("All event types registered successfully");
         } catch (Exception e) {
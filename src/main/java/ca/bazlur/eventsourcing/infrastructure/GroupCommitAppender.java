@@ -0,0 +1,297 @@
+package ca.bazlur.eventsourcing.infrastructure;
+
+import ca.bazlur.eventsourcing.core.AppendOutcomeUnknownException;
+import ca.bazlur.eventsourcing.core.DomainEvent;
+import ca.bazlur.eventsourcing.core.EventStoreException;
+import ca.bazlur.eventsourcing.core.OptimisticConcurrencyException;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Appends events through the event store, optionally coalescing concurrent appends into shared
+ * transactions so that many small appends pay for a single commit.
+ * <p>
+ * With group commit enabled, appends are queued and a single writer collects them for a short
+ * window, bounded by time and by batch size. A batch holds at most one append per stream; a
+ * second append to the same stream waits for the next batch, since its expected version depends
+ * on the first. Each append in a batch claims its stream head on its own, so a concurrency
+ * failure only fails that caller. Any other failure while appending rolls the batch back and its
+ * appends are retried one by one, so a bad append cannot fail its neighbours. A failure of the
+ * commit itself leaves the batch's outcome unknown, so its appends are not retried; their callers
+ * get an {@link AppendOutcomeUnknownException} instead.
+ * <p>
+ * With group commit disabled (the default), every append runs in its own transaction on the
+ * calling thread.
+ */
+@ApplicationScoped
+public class GroupCommitAppender {
+    private static final Logger log = LoggerFactory.getLogger(GroupCommitAppender.class);
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    private final JpaEventStore eventStore;
+    private final boolean enabled;
+    private final int maxBatchSize;
+    private final long windowNanos;
+    private final BlockingQueue<PendingAppend> queue;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    @Inject
+    public GroupCommitAppender(
+            JpaEventStore eventStore,
+            @ConfigProperty(name = "eventstore.group-commit.enabled", defaultValue = "false") boolean enabled,
+            @ConfigProperty(name = "eventstore.group-commit.max-batch-size", defaultValue = "64") int maxBatchSize,
+            @ConfigProperty(name = "eventstore.group-commit.window-millis", defaultValue = "2") long windowMillis,
+            @ConfigProperty(name = "eventstore.group-commit.queue-capacity", defaultValue = "10000") int queueCapacity) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("Group commit batch size must be at least 1");
+        }
+        if (windowMillis < 0) {
+            throw new IllegalArgumentException("Group commit window cannot be negative");
+        }
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("Group commit queue capacity must be at least 1");
+        }
+        this.eventStore = eventStore;
+        this.enabled = enabled;
+        this.maxBatchSize = maxBatchSize;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        writer = Thread.ofVirtual().name("event-store-group-commit").start(this::drain);
+        log.info("Group commit enabled with batches of up to {} appends over {} us",
+                maxBatchSize, TimeUnit.NANOSECONDS.toMicros(windowNanos));
+    }
+
+    @PreDestroy
+    void stop() {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        writer.interrupt();
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        var abandoned = new ArrayList<PendingAppend>();
+        queue.drainTo(abandoned);
+        abandoned.forEach(append -> append.result().completeExceptionally(
+                new EventStoreException("Event store is shutting down")));
+    }
+
+    /**
+     * Appends events to a stream and waits for them to commit.
+     *
+     * @return the global position of the last appended event
+     * @throws OptimisticConcurrencyException if the stream is no longer at the expected version
+     * @throws AppendOutcomeUnknownException  if the commit failed and the events may have been stored
+     * @throws EventStoreException            if the append fails
+     */
+    public long append(String streamId, List<DomainEvent> events, long expectedVersion) {
+        if (!enabled) {
+            return eventStore.appendEvents(streamId, events, expectedVersion);
+        }
+        try {
+            return appendAsync(streamId, events, expectedVersion).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new EventStoreException("Failed to append events to stream: " + streamId, e.getCause());
+        }
+    }
+
+    /**
+     * Queues an append for the next group commit.
+     *
+     * @return a future completing with the global position of the last appended event once the
+     * append has committed, or with the append's own failure
+     */
+    public CompletableFuture<Long> appendAsync(String streamId, List<DomainEvent> events, long expectedVersion) {
+        if (!enabled) {
+            try {
+                return CompletableFuture.completedFuture(eventStore.appendEvents(streamId, events, expectedVersion));
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        if (!running) {
+            return CompletableFuture.failedFuture(new EventStoreException("Event store is shutting down"));
+        }
+        var append = new PendingAppend(streamId, List.copyOf(events), expectedVersion, new CompletableFuture<>());
+        if (!queue.offer(append)) {
+            return CompletableFuture.failedFuture(
+                    new EventStoreException("Group commit queue is full, rejecting append to stream: " + streamId));
+        }
+        return append.result();
+    }
+
+    private void drain() {
+        var carried = new ArrayList<PendingAppend>();
+        while (running) {
+            try {
+                var batch = nextBatch(carried);
+                if (!batch.isEmpty()) {
+                    commit(batch);
+                }
+            } catch (Exception e) {
+                log.error("Group commit writer failed", e);
+            }
+        }
+        carried.forEach(append -> append.result().completeExceptionally(
+                new EventStoreException("Event store is shutting down")));
+    }
+
+    private List<PendingAppend> nextBatch(List<PendingAppend> carried) {
+        var batch = new ArrayList<PendingAppend>();
+        var streams = new HashSet<String>();
+        var deferred = new ArrayList<PendingAppend>();
+
+        // Appends held back from the previous batch go first, in arrival order
+        for (var append : carried) {
+            if (batch.size() < maxBatchSize && streams.add(append.streamId())) {
+                batch.add(append);
+            } else {
+                deferred.add(append);
+            }
+        }
+        carried.clear();
+
+        try {
+            if (batch.isEmpty()) {
+                var first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    return batch;
+                }
+                streams.add(first.streamId());
+                batch.add(first);
+            }
+
+            var deadline = System.nanoTime() + windowNanos;
+            while (batch.size() < maxBatchSize) {
+                var remaining = deadline - System.nanoTime();
+                var next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                if (next == null) {
+                    break;
+                }
+                if (streams.add(next.streamId())) {
+                    batch.add(next);
+                } else {
+                    deferred.add(next);
+                }
+            }
+        } catch (InterruptedException e) {
+            // Shutting down; appends already taken off the queue are still committed
+            log.debug("Group commit writer interrupted with {} appends collected", batch.size());
+        } finally {
+            carried.addAll(deferred);
+        }
+        return batch;
+    }
+
+    private void commit(List<PendingAppend> batch) {
+        var outcomes = new ArrayList<Outcome>(batch.size());
+        var appended = new AtomicBoolean();
+        try {
+            QuarkusTransaction.requiringNew().run(() -> {
+                outcomes.clear();
+                appended.set(false);
+                for (var append : batch) {
+                    try {
+                        outcomes.add(Outcome.succeeded(
+                                eventStore.appendEvents(append.streamId(), append.events(), append.expectedVersion())));
+                    } catch (OptimisticConcurrencyException e) {
+                        // Nothing was written for this append; the rest of the batch carries on
+                        outcomes.add(Outcome.failed(e));
+                    }
+                }
+                appended.set(true);
+            });
+        } catch (Exception e) {
+            if (appended.get()) {
+                failUnknown(batch, outcomes, e);
+                return;
+            }
+            log.warn("Group commit of {} appends failed, retrying them one by one: {}", batch.size(), e.getMessage());
+            batch.forEach(this::commitAlone);
+            return;
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            outcomes.get(i).complete(batch.get(i).result());
+        }
+        log.debug("Group committed {} appends", batch.size());
+    }
+
+    // Every append went through but the commit failed: the batch may or may not be durable, and a
+    // retry could store it twice. Only the appends rejected on concurrency are known not to be stored.
+    private void failUnknown(List<PendingAppend> batch, List<Outcome> outcomes, Exception commitFailure) {
+        log.error("Group commit of {} appends failed while committing, outcome unknown", batch.size(), commitFailure);
+        for (int i = 0; i < batch.size(); i++) {
+            var append = batch.get(i);
+            if (outcomes.get(i).failure() != null) {
+                outcomes.get(i).complete(append.result());
+            } else {
+                append.result().completeExceptionally(new AppendOutcomeUnknownException(
+                        "Commit failed after appending to stream: " + append.streamId(), commitFailure));
+            }
+        }
+    }
+
+    private void commitAlone(PendingAppend append) {
+        try {
+            append.result().complete(
+                    eventStore.appendEvents(append.streamId(), append.events(), append.expectedVersion()));
+        } catch (RuntimeException e) {
+            append.result().completeExceptionally(e);
+        }
+    }
+
+    private record PendingAppend(String streamId, List<DomainEvent> events, long expectedVersion,
+                                 CompletableFuture<Long> result) {
+    }
+
+    private record Outcome(long position, RuntimeException failure) {
+        static Outcome succeeded(long position) {
+            return new Outcome(position, null);
+        }
+
+        static Outcome failed(RuntimeException failure) {
+            return new Outcome(0L, failure);
+        }
+
+        void complete(CompletableFuture<Long> result) {
+            if (failure != null) {
+                result.completeExceptionally(failure);
+            } else {
+                result.complete(position);
+            }
+        }
+    }
+}
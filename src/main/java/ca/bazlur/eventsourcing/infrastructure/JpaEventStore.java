@@ -1,74 +1,141 @@
 package ca.bazlur.eventsourcing.infrastructure;
 
 import ca.bazlur.eventsourcing.core.*;
+import ca.bazlur.eventsourcing.infrastructure.serialization.EventSerializerRegistry;
+import ca.bazlur.eventsourcing.infrastructure.serialization.PayloadCompressor;
 import ca.bazlur.eventsourcing.infrastructure.snapshot.SnapshotService;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import ca.bazlur.eventsourcing.infrastructure.snapshot.SnapshotWriter;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.TypedQuery;
 import jakarta.transaction.Transactional;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.jpa.HibernateHints;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @ApplicationScoped
 public class JpaEventStore implements SnapshotEventStore {
 
     private static final Logger log = LoggerFactory.getLogger(JpaEventStore.class);
 
+    // The snapshot row comes first, followed by the events strictly after its version. Without a
+    // snapshot the version comparison is against NULL and matches no events, so nothing is read.
+    // Versions held by the stream cache are left out; with nothing cached both bounds are Long.MAX_VALUE.
+    private static final String LOAD_FROM_SNAPSHOT_SQL = """
+            WITH snapshot AS (
+                SELECT version, CAST(state_data AS text) AS data, state_payload, payload_codec
+                FROM snapshots
+                WHERE aggregate_id = :aggregateId AND aggregate_type = :aggregateType
+                ORDER BY version DESC
+                LIMIT 1
+            )
+            SELECT 0 AS kind, s.version, s.data, NULL AS event_id, NULL AS global_position,
+                   s.state_payload AS payload, NULL AS payload_format, s.payload_codec
+            FROM snapshot s
+            UNION ALL
+            SELECT 1, e.version, CAST(e.event_data AS text), e.event_id, e.global_position,
+                   e.payload, e.payload_format, e.payload_codec
+            FROM events e
+            WHERE e.stream_id = :aggregateId AND e.version > (SELECT version FROM snapshot)
+              AND (e.version < :firstCached OR e.version > :lastCached)
+            ORDER BY kind, version
+            """;
+
+    // Reads select plain columns rather than entities: the log is immutable, so there is nothing for
+    // the persistence context to track, and a row goes straight from the result set to the deserializer
+    private static final String EVENT_ROWS_QUERY = "SELECT e.eventId, e.payloadFormat, e.payloadCodec, " +
+            "e.eventData, e.payload, e.globalPosition, e.eventType, e.streamId, e.version, e.timestamp, " +
+            "e.correlationId, e.causationId, e.aggregateType FROM EventEntity e ";
+
     private final EntityManager entityManager;
-    private final ObjectMapper objectMapper;
+    private final EventSerializerRegistry serializers;
+    private final PayloadCompressor payloadCompressor;
     private final EventSchemaManager schemaManager;
     private final SnapshotService snapshotService;
+    private final CommitWatermark commitWatermark;
+    private final AggregateRegistry aggregateRegistry;
+    private final SnapshotWriter snapshotWriter;
+    private final StreamCache streamCache;
+    private final int fetchSize;
 
     @Inject
     public JpaEventStore(
             EntityManager entityManager,
-            ObjectMapper objectMapper,
+            EventSerializerRegistry serializers,
+            PayloadCompressor payloadCompressor,
             EventSchemaManager schemaManager,
-            SnapshotService snapshotService
+            SnapshotService snapshotService,
+            CommitWatermark commitWatermark,
+            AggregateRegistry aggregateRegistry,
+            SnapshotWriter snapshotWriter,
+            StreamCache streamCache,
+            @ConfigProperty(name = "eventstore.read.fetch-size", defaultValue = "500") int fetchSize
     ) {
+        if (fetchSize < 1) {
+            throw new IllegalArgumentException("Read fetch size must be at least 1");
+        }
         this.entityManager = entityManager;
-        this.objectMapper = objectMapper;
+        this.serializers = serializers;
+        this.payloadCompressor = payloadCompressor;
         this.schemaManager = schemaManager;
         this.snapshotService = snapshotService;
+        this.commitWatermark = commitWatermark;
+        this.aggregateRegistry = aggregateRegistry;
+        this.snapshotWriter = snapshotWriter;
+        this.streamCache = streamCache;
+        this.fetchSize = fetchSize;
     }
 
-    @Transactional
-    public void appendEvents(String streamId, List<DomainEvent> events, long expectedVersion) {
+    // A concurrency failure is raised before anything is written, so it need not doom a shared
+    // transaction; GroupCommitAppender relies on this to fail only the conflicting append
+    @Transactional(dontRollbackOn = OptimisticConcurrencyException.class)
+    public long appendEvents(String streamId, List<DomainEvent> events, long expectedVersion) {
         try {
-            // Validate optimistic concurrency
-            validateOptimisticConcurrency(streamId, expectedVersion);
-
             // Validate event schemas
             for (DomainEvent event : events) {
                 schemaManager.validateEvent(event);
             }
 
+            // Claim the stream head; a concurrent writer to the same stream waits here and then fails
+            if (!events.isEmpty()) {
+                advanceStreamHead(streamId, expectedVersion, events.getLast().getVersion());
+            }
+
+            // Assign global positions in append order
+            var positions = allocateGlobalPositions(events.size());
+            for (int i = 0; i < events.size(); i++) {
+                events.get(i).setGlobalPosition(positions.get(i));
+            }
+
             // Convert and store events
             var entities = events.stream()
-                    .map(event -> new EventEntity(
-                            event.getEventId(),
-                            streamId,
-                            event.getEventType(),
-                            toJson(event),
-                            event.getVersion(),
-                            event.getTimestamp(),
-                            event.getCorrelationId(),
-                            event.getCausationId()))
+                    .map(event -> toEntity(streamId, event))
                     .toList();
 
             entities.forEach(entityManager::persist);
             entityManager.flush();
 
             // After successfully appending events, check if we need to create a snapshot
-            recordEventsAndManageSnapshot(streamId, events);
+            requestSnapshotIfDue(streamId, events, expectedVersion);
+            streamCache.addAfterCommit(streamId, expectedVersion, events);
 
             log.debug("Appended {} events to stream {}", events.size(), streamId);
+            return positions.isEmpty() ? 0L : positions.getLast();
+        } catch (OptimisticConcurrencyException e) {
+            log.debug("Concurrent append to stream {}: {}", streamId, e.getMessage());
+            throw e;
         } catch (EventSchemaException e) {
             log.error("Schema validation failed for events in stream {}: {}", streamId, e.getMessage());
             throw new EventStoreException("Schema validation failed", e);
@@ -78,92 +145,138 @@ public class JpaEventStore implements SnapshotEventStore {
         }
     }
 
-    private void recordEventsAndManageSnapshot(String streamId, List<DomainEvent> events) {
-        if (!events.isEmpty()) {
-            try {
-                // Get the aggregate type from the first event's class name
-                var aggregateType = events.getFirst().getClass().getSimpleName()
-                        .replaceAll("Event$", "");
-
-                log.debug("Checking snapshot creation for stream {} of type {} after appending {} events",
-                        streamId, aggregateType, events.size());
-
-                // Load all events for this aggregate to reconstruct its current state
-                var allEvents = getEvents(streamId);
-                log.debug("Found {} total events for stream {}", allEvents.size(), streamId);
-
-                var aggregateClass = Class.forName(
-                        "ca.bazlur.eventsourcing.domain." +
-                                aggregateType.toLowerCase() + "." + aggregateType);
-
-                var aggregate = (AggregateRoot) aggregateClass.getConstructor(String.class)
-                        .newInstance(streamId);
-                aggregate.loadFromHistory(allEvents);
-
-                log.info("Reconstructed aggregate {} of type {} at version {}",
-                        streamId, aggregateType, aggregate.getVersion());
-
-                // Try to create a snapshot if needed
-                var snapshotCreated = snapshotService.createSnapshotIfNeeded(aggregate);
-                if (snapshotCreated) {
-                    log.info("Created new snapshot for aggregate {} of type {} at version {}",
-                            streamId, aggregateType, aggregate.getVersion());
-                } else {
-                    log.debug("No snapshot needed for aggregate {} of type {} at version {}",
-                            streamId, aggregateType, aggregate.getVersion());
-                }
-            } catch (Exception e) {
-                // Log but don't fail the event append operation if snapshot creation fails
-                log.warn("Failed to create snapshot for stream {} of type {} after appending {} events: {}",
-                        streamId, events.getFirst().getClass().getSimpleName(), events.size(),
-                        e.getMessage());
-                log.debug("Snapshot creation failure details", e);
-            }
+    @SuppressWarnings("unchecked")
+    private List<Long> allocateGlobalPositions(int count) {
+        if (count == 0) {
+            return List.of();
+        }
+        // One round trip for the whole append; the sequence backs the global_position column.
+        // The variable-free filter runs once before any nextval and forces this transaction to take
+        // its xid first, which is what lets CommitWatermark tell an in-flight hole from a rolled back one.
+        List<Number> values = entityManager.createNativeQuery(
+                        "SELECT nextval('events_global_position_seq') FROM generate_series(1, :count) " +
+                        "WHERE pg_current_xact_id() IS NOT NULL ORDER BY 1")
+                .setParameter("count", count)
+                .getResultList();
+        return values.stream()
+                .map(Number::longValue)
+                .toList();
+    }
+
+    /**
+     * Requests a snapshot when the append crossed a snapshot boundary. The check is version
+     * arithmetic only, so an append that crosses no boundary does no extra work. The snapshot
+     * itself is written in the background once this transaction commits, so the append never
+     * waits on it.
+     */
+    private void requestSnapshotIfDue(String streamId, List<DomainEvent> events, long expectedVersion) {
+        if (events.isEmpty() || !snapshotService.isSnapshotDue(expectedVersion, events.getLast().getVersion())) {
+            return;
         }
+        aggregateRegistry.findByEvent(events.getFirst().getClass()).ifPresentOrElse(
+                aggregateType -> snapshotWriter.requestAfterCommit(streamId, aggregateType),
+                () -> log.debug("No aggregate type registered for {}, skipping snapshot of stream {}",
+                        events.getFirst().getClass().getSimpleName(), streamId));
     }
 
     @Override
     public List<DomainEvent> getEvents(String streamId) {
-        try {
-            TypedQuery<EventEntity> query = entityManager.createQuery(
-                    "SELECT e FROM EventEntity e WHERE e.streamId = :streamId ORDER BY e.version ASC",
-                    EventEntity.class
-            );
-            query.setParameter("streamId", streamId);
-
-            List<EventEntity> entities = query.getResultList();
-
-            List<DomainEvent> events = entities.stream()
-                    .map(this::deserializeEvent)
-                    .toList();
+        return getEvents(streamId, 0L);
+    }
 
+    @Override
+    public List<DomainEvent> getEvents(String streamId, long fromVersion) {
+        var cachedRun = streamCache.findRun(streamId).orElse(List.of());
+        // Collecting from the stream keeps a single list of events instead of entities plus events
+        try (var stream = cachedRun.isEmpty()
+                ? streamEvents(streamId, fromVersion)
+                : streamEventsAround(streamId, fromVersion, cachedRun)) {
+            var events = withCachedRun(stream.toList(), cachedRun, fromVersion);
             log.debug("Loaded {} events from stream {} (JPA)", events.size(), streamId);
             return events;
-
         } catch (Exception e) {
             throw new RuntimeException("Failed to load events from stream: " + streamId, e);
         }
     }
 
     @Override
-    public List<DomainEvent> getEvents(String streamId, long fromVersion) {
-        try {
-            TypedQuery<EventEntity> query = entityManager.createQuery(
-                    "SELECT e FROM EventEntity e WHERE e.streamId = :streamId AND e.version >= :fromVersion ORDER BY e.version ASC",
-                    EventEntity.class
-            );
-            query.setParameter("streamId", streamId);
-            query.setParameter("fromVersion", fromVersion);
+    public Stream<DomainEvent> streamEvents(String streamId, long fromVersion) {
+        return streamRows(entityManager.createQuery(EVENT_ROWS_QUERY +
+                        "WHERE e.streamId = :streamId AND e.version >= :fromVersion ORDER BY e.version ASC",
+                        Object[].class)
+                .setParameter("streamId", streamId)
+                .setParameter("fromVersion", fromVersion));
+    }
 
-            List<EventEntity> entities = query.getResultList();
+    // Reads the events of a stream that the stream cache does not hold
+    private Stream<DomainEvent> streamEventsAround(String streamId, long fromVersion, List<DomainEvent> cachedRun) {
+        return streamRows(entityManager.createQuery(EVENT_ROWS_QUERY +
+                        "WHERE e.streamId = :streamId AND e.version >= :fromVersion " +
+                        "AND (e.version < :firstCached OR e.version > :lastCached) ORDER BY e.version ASC",
+                        Object[].class)
+                .setParameter("streamId", streamId)
+                .setParameter("fromVersion", fromVersion)
+                .setParameter("firstCached", cachedRun.getFirst().getVersion())
+                .setParameter("lastCached", cachedRun.getLast().getVersion()));
+    }
 
-            return entities.stream()
-                    .map(this::deserializeEvent)
-                    .toList();
+    /**
+     * Puts events read around the cached run of a stream back in version order, together with the
+     * cached events from {@code fromVersion} on. The read left out exactly the cached versions, so
+     * the two never overlap, and events past the cached head, appended by other processes, are kept.
+     */
+    private static List<DomainEvent> withCachedRun(List<DomainEvent> read, List<DomainEvent> cachedRun,
+                                                   long fromVersion) {
+        if (cachedRun.isEmpty()) {
+            return read;
+        }
+        var firstCached = cachedRun.getFirst().getVersion();
+        var lastCached = cachedRun.getLast().getVersion();
+        var events = new ArrayList<DomainEvent>(read.size() + cachedRun.size());
+        read.stream().filter(event -> event.getVersion() < firstCached).forEach(events::add);
+        cachedRun.stream().filter(event -> event.getVersion() >= fromVersion).forEach(events::add);
+        read.stream().filter(event -> event.getVersion() > lastCached).forEach(events::add);
+        return events;
+    }
 
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to load events from stream: " + streamId, e);
+    @Override
+    public Stream<DomainEvent> streamAllEvents(long afterPosition, EventFilter filter) {
+        if (afterPosition < 0) {
+            throw new IllegalArgumentException("Position cannot be negative");
+        }
+        // Fix the upper bound up front, for the same reason as readAllEvents
+        var watermark = commitWatermark.current();
+        if (watermark <= afterPosition) {
+            return Stream.empty();
         }
+        var storedEventTypes = storedEventTypes(filter);
+        if (storedEventTypes.isPresent() && storedEventTypes.get().isEmpty()) {
+            return Stream.empty();
+        }
+        // A cursor walks the whole range once anyway, so a single query over every type will do here
+        return streamRows(globalLogQuery(afterPosition, watermark, storedEventTypes));
+    }
+
+    /**
+     * Runs a read through a forward-only cursor. Inside a transaction the Postgres driver only
+     * pulls {@code fetchSize} rows per round trip instead of buffering the whole result, and as
+     * the rows are plain columns, nothing accumulates in the persistence context either.
+     */
+    private Stream<DomainEvent> streamRows(TypedQuery<Object[]> query) {
+        return query
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream()
+                .map(this::deserializeRow);
+    }
+
+    private List<DomainEvent> readRows(TypedQuery<Object[]> query) {
+        return query
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultList()
+                .stream()
+                .map(this::deserializeRow)
+                .toList();
     }
 
     @Override
@@ -185,18 +298,10 @@ public class JpaEventStore implements SnapshotEventStore {
         }
 
         try {
-            TypedQuery<EventEntity> query = entityManager.createQuery(
-                    "SELECT e FROM EventEntity e ORDER BY e.timestamp ASC, e.version ASC",
-                    EventEntity.class
-            );
-            query.setFirstResult(offset);
-            query.setMaxResults(limit);
-
-            List<EventEntity> entities = query.getResultList();
-
-            var events = entities.stream()
-                    .map(this::deserializeEvent)
-                    .toList();
+            var events = readRows(entityManager.createQuery(
+                            EVENT_ROWS_QUERY + "ORDER BY e.globalPosition ASC", Object[].class)
+                    .setFirstResult(offset)
+                    .setMaxResults(limit));
 
             log.debug("Loaded {} events with offset {} and limit {}", events.size(), offset, limit);
             return events;
@@ -211,77 +316,333 @@ public class JpaEventStore implements SnapshotEventStore {
     }
 
     @Override
-    public List<DomainEvent> getAllEvents(long fromVersion) {
+    public EventBatch readAllEvents(long afterPosition, int limit) {
+        var batch = readAllEnvelopes(afterPosition, limit);
         try {
-            TypedQuery<EventEntity> query = entityManager.createQuery(
-                    "SELECT e FROM EventEntity e WHERE e.version >= :fromVersion ORDER BY e.timestamp ASC, e.version ASC",
-                    EventEntity.class
-            );
-            query.setParameter("fromVersion", fromVersion);
+            var events = batch.envelopes().stream()
+                    .map(EventEnvelope::getEvent)
+                    .toList();
+            return new EventBatch(events, batch.lastPosition());
+        } catch (Exception e) {
+            log.error("Failed to load events after position {}", afterPosition, e);
+            throw new EventStoreException("Failed to load events", e);
+        }
+    }
+
+    @Override
+    public EnvelopeBatch readAllEnvelopes(long afterPosition, int limit, EventFilter filter) {
+        if (afterPosition < 0) {
+            throw new IllegalArgumentException("Position cannot be negative");
+        }
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be greater than 0");
+        }
+        if (limit > 1000) {
+            log.warn("Requested limit {} is too large, limiting to 1000", limit);
+            limit = 1000;
+        }
 
-            List<EventEntity> entities = query.getResultList();
+        try {
+            // Never hand out positions past an uncommitted hole, or the reader would skip it for good
+            var watermark = commitWatermark.current();
+            if (watermark <= afterPosition) {
+                return EnvelopeBatch.empty(afterPosition);
+            }
+
+            var storedEventTypes = storedEventTypes(filter);
+            if (storedEventTypes.isPresent() && storedEventTypes.get().isEmpty()) {
+                return EnvelopeBatch.empty(watermark);
+            }
+            var rows = storedEventTypes.isEmpty()
+                    ? readGlobalLog(globalLogQuery(afterPosition, watermark, Optional.empty()), limit)
+                    : readGlobalLogByType(afterPosition, watermark, storedEventTypes.get(), limit);
+            if (rows.isEmpty()) {
+                return EnvelopeBatch.empty(filter.isAll() ? afterPosition : watermark);
+            }
 
-            return entities.stream()
-                    .map(this::deserializeEvent)
+            var envelopes = rows.stream()
+                    .map(this::toEnvelope)
                     .toList();
+            log.debug("Loaded {} events after position {}", envelopes.size(), afterPosition);
+            // A short filtered batch has looked at every event up to the watermark
+            var lastPosition = !filter.isAll() && envelopes.size() < limit
+                    ? watermark
+                    : envelopes.getLast().getGlobalPosition();
+            return new EnvelopeBatch(envelopes, lastPosition);
 
+        } catch (jakarta.persistence.PersistenceException e) {
+            log.error("Database error while loading events after position {}", afterPosition, e);
+            throw new EventStoreException("Database error while loading events", e);
         } catch (Exception e) {
-            throw new RuntimeException("Failed to load events from version: " + fromVersion, e);
+            log.error("Failed to load events after position {}", afterPosition, e);
+            throw new EventStoreException("Failed to load events", e);
+        }
+    }
+
+    /**
+     * Keyset read on the global position index: the database seeks straight to the cursor
+     * instead of scanning and discarding every earlier row like OFFSET does.
+     */
+    private List<Object[]> readGlobalLog(TypedQuery<Object[]> query, int limit) {
+        return query
+                .setMaxResults(limit)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultList();
+    }
+
+    /**
+     * Reads a type-filtered batch as one keyset read per stored type value, merged in position order.
+     * Each read seeks into the (event_type, global_position) index and walks it in order, so it stops
+     * after at most {@code limit} rows; a single {@code IN} query cannot, as its matches come from
+     * several ranges of the index and have to be collected and sorted before the limit applies.
+     */
+    private List<Object[]> readGlobalLogByType(long afterPosition, long watermark, Set<String> storedEventTypes,
+                                               int limit) {
+        return storedEventTypes.stream()
+                .flatMap(eventType -> readGlobalLog(
+                        globalLogQuery(afterPosition, watermark, Optional.of(Set.of(eventType))), limit).stream())
+                .sorted(Comparator.comparingLong(row -> (Long) row[5]))
+                .limit(limit)
+                .toList();
+    }
+
+    /**
+     * Builds a read of the global log up to the watermark, restricted to the given values of the
+     * event type column if there are any.
+     */
+    private TypedQuery<Object[]> globalLogQuery(long afterPosition, long watermark,
+                                                Optional<Set<String>> storedEventTypes) {
+        var jpql = new StringBuilder(EVENT_ROWS_QUERY)
+                .append("WHERE e.globalPosition > :afterPosition AND e.globalPosition <= :watermark ");
+        storedEventTypes.ifPresent(eventTypes ->
+                jpql.append(eventTypes.size() == 1 ? "AND e.eventType = :eventType " : "AND e.eventType IN :eventTypes "));
+        var query = entityManager.createQuery(jpql.append("ORDER BY e.globalPosition ASC").toString(), Object[].class)
+                .setParameter("afterPosition", afterPosition)
+                .setParameter("watermark", watermark);
+        storedEventTypes.ifPresent(eventTypes -> {
+            if (eventTypes.size() == 1) {
+                query.setParameter("eventType", eventTypes.iterator().next());
+            } else {
+                query.setParameter("eventTypes", eventTypes);
+            }
+        });
+        return query;
+    }
+
+    /**
+     * Resolves a filter to the values of the event type column it selects, or to empty if it selects
+     * every event. Aggregate types become the event types registered for them, rather than a match
+     * on the aggregate type column, which is null for events written before it was introduced.
+     * Event types are matched by every value their column may hold, type id and legacy name alike.
+     */
+    private Optional<Set<String>> storedEventTypes(EventFilter filter) {
+        if (filter.isAll()) {
+            return Optional.empty();
         }
+        var eventTypes = filter.aggregateTypes().isEmpty()
+                ? filter.eventTypes()
+                : aggregateRegistry.findEventTypes(filter.aggregateTypes());
+        if (!filter.aggregateTypes().isEmpty() && !filter.eventTypes().isEmpty()) {
+            eventTypes = eventTypes.stream()
+                    .filter(filter.eventTypes()::contains)
+                    .collect(Collectors.toSet());
+        }
+        return Optional.of(eventTypes.stream()
+                .flatMap(eventType -> schemaManager.findStoredEventTypes(eventType).stream())
+                .collect(Collectors.toSet()));
     }
 
-    private String toJson(DomainEvent event) {
+    @Override
+    public long getCommittedPosition() {
+        return commitWatermark.current();
+    }
+
+    @Override
+    public List<DomainEvent> getAllEvents(long fromVersion) {
         try {
-            return objectMapper.writeValueAsString(event);
-        } catch (JsonProcessingException e) {
-            log.error("Failed to convert DomainEvent to JSON: {}", event, e);
-            throw new RuntimeException("Failed to convert DomainEvent to JSON: " + event, e);
+            return readRows(entityManager.createQuery(
+                            EVENT_ROWS_QUERY + "WHERE e.version >= :fromVersion ORDER BY e.globalPosition ASC",
+                            Object[].class)
+                    .setParameter("fromVersion", fromVersion));
+
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to load events from version: " + fromVersion, e);
         }
     }
 
-    private void validateOptimisticConcurrency(String streamId, long expectedVersion) {
-        TypedQuery<Long> query = entityManager.createQuery(
-                "SELECT MAX(e.version) FROM EventEntity e WHERE e.streamId = :streamId",
-                Long.class
-        );
-        query.setParameter("streamId", streamId);
+    private EventEntity toEntity(String streamId, DomainEvent event) {
+        var serializer = serializers.writer();
+        var encoded = payloadCompressor.compress(serializer.serialize(event));
+        // Only uncompressed text goes to the jsonb column; anything else is stored as bytes
+        var textual = serializer.isTextual() && !encoded.isCompressed();
+        var entity = new EventEntity(
+                event.getEventId(),
+                streamId,
+                schemaManager.findTypeId(event.getClass()).orElseGet(event::getEventType),
+                textual ? new String(encoded.bytes(), StandardCharsets.UTF_8) : null,
+                event.getVersion(),
+                event.getGlobalPosition(),
+                event.getTimestamp(),
+                event.getCorrelationId(),
+                event.getCausationId());
+        if (!textual) {
+            entity.setPayload(encoded.bytes());
+        }
+        entity.setPayloadFormat(serializer.getFormat());
+        entity.setPayloadCodec(encoded.codec());
+        aggregateRegistry.findByEvent(event.getClass())
+                .ifPresent(aggregateType -> entity.setAggregateType(aggregateType.aggregateClass().getSimpleName()));
+        return entity;
+    }
 
-        Long currentVersion = query.getSingleResult();
-        if (currentVersion == null) {
-            currentVersion = 0L;
+    /**
+     * Moves the stream head from the expected version to the new one with a single conditional
+     * write: an insert for a new stream, an update matching the expected version otherwise.
+     * The write locks the head row, so a concurrent append to the same stream blocks until this
+     * transaction ends and then matches no row. A stream written before heads were tracked has
+     * events but no head row; its head is seeded from its events the first time the write misses.
+     */
+    private void advanceStreamHead(String streamId, long expectedVersion, long newVersion) {
+        var updated = writeStreamHead(streamId, expectedVersion, newVersion);
+        if (updated == 0 && seedStreamHead(streamId)) {
+            updated = writeStreamHead(streamId, expectedVersion, newVersion);
         }
 
-        if (currentVersion != expectedVersion) {
+        if (updated == 0) {
             throw new OptimisticConcurrencyException(
-                    "Expected version " + expectedVersion + " but current version is " + currentVersion
+                    "Expected version " + expectedVersion + " but current version is " + currentStreamVersion(streamId)
             );
         }
     }
 
-    private DomainEvent deserializeEvent(EventEntity entity) {
+    private int writeStreamHead(String streamId, long expectedVersion, long newVersion) {
+        var query = expectedVersion == 0
+                ? entityManager.createNativeQuery(
+                        "INSERT INTO streams (stream_id, version, updated_at) " +
+                        "SELECT :streamId, :version, now() " +
+                        "WHERE NOT EXISTS (SELECT 1 FROM events WHERE stream_id = :streamId) " +
+                        "ON CONFLICT (stream_id) DO NOTHING")
+                : entityManager.createNativeQuery(
+                        "UPDATE streams SET version = :version, updated_at = now() " +
+                        "WHERE stream_id = :streamId AND version = :expectedVersion")
+                        .setParameter("expectedVersion", expectedVersion);
+        return query
+                .setParameter("streamId", streamId)
+                .setParameter("version", newVersion)
+                .executeUpdate();
+    }
+
+    // Inserts the head of a stream that has events but no head row yet; false if there was nothing to seed
+    private boolean seedStreamHead(String streamId) {
+        var seeded = entityManager.createNativeQuery(
+                        "INSERT INTO streams (stream_id, version, updated_at) " +
+                        "SELECT stream_id, MAX(version), now() FROM events WHERE stream_id = :streamId " +
+                        "GROUP BY stream_id ON CONFLICT (stream_id) DO NOTHING")
+                .setParameter("streamId", streamId)
+                .executeUpdate() > 0;
+        if (seeded) {
+            log.info("Seeded head of stream {} from its events", streamId);
+        }
+        return seeded;
+    }
+
+    @SuppressWarnings("unchecked")
+    private long currentStreamVersion(String streamId) {
+        List<Number> versions = entityManager.createNativeQuery(
+                        "SELECT version FROM streams WHERE stream_id = :streamId")
+                .setParameter("streamId", streamId)
+                .getResultList();
+        return versions.isEmpty() ? 0L : versions.getFirst().longValue();
+    }
+
+    private DomainEvent deserializeRow(Object[] row) {
+        return toEnvelope(row).getEvent();
+    }
+
+    // Maps a row of EVENT_ROWS_QUERY; the payload is only decoded when the envelope is asked for the event
+    private EventEnvelope toEnvelope(Object[] row) {
+        var eventId = (String) row[0];
+        var payloadFormat = (String) row[1];
+        var payloadCodec = (String) row[2];
+        var eventData = (String) row[3];
+        var eventType = (String) row[6];
+        Class<? extends DomainEvent> eventClass = schemaManager.findEventClass(eventType).orElse(null);
+        return new EventEnvelope(
+                eventId,
+                eventType,
+                eventClass,
+                (String) row[7],
+                row[12] != null ? (String) row[12] : aggregateTypeOf(eventClass),
+                (Long) row[8],
+                (Long) row[5],
+                (Instant) row[9],
+                (String) row[10],
+                (String) row[11],
+                eventData != null ? eventData.getBytes(StandardCharsets.UTF_8) : (byte[]) row[4],
+                stored -> decode(eventId, payloadFormat, payloadCodec, stored));
+    }
+
+    // Events written before the aggregate type column existed get it from the aggregate registered for them
+    private String aggregateTypeOf(Class<? extends DomainEvent> eventClass) {
+        return eventClass == null ? null : aggregateRegistry.findByEvent(eventClass)
+                .map(aggregateType -> aggregateType.aggregateClass().getSimpleName())
+                .orElse(null);
+    }
+
+    private DomainEvent deserializeEvent(String eventId, String payloadFormat, String payloadCodec, String eventData,
+                                         byte[] payload, long globalPosition) {
+        var stored = payload != null ? payload : eventData.getBytes(StandardCharsets.UTF_8);
+        var event = decode(eventId, payloadFormat, payloadCodec, stored);
+        event.setGlobalPosition(globalPosition);
+        return event;
+    }
+
+    // Text from the jsonb column is never compressed, so its codec is null and it passes through as is
+    private DomainEvent decode(String eventId, String payloadFormat, String payloadCodec, byte[] stored) {
         try {
-            return objectMapper.readValue(entity.getEventData(), DomainEvent.class);
+            return serializers.forFormat(payloadFormat).deserialize(payloadCompressor.decompress(stored, payloadCodec));
         } catch (Exception e) {
-            throw new RuntimeException("Failed to deserialize event: " + entity.getEventId(), e);
+            throw new RuntimeException("Failed to deserialize event: " + eventId, e);
         }
     }
 
+    /**
+     * Loads the latest snapshot and the events strictly after it in a single round trip. Events the
+     * stream cache holds are left out of the read and taken from memory instead.
+     */
     @Override
+    @SuppressWarnings("unchecked")
     public <T extends AggregateRoot> Optional<T> loadFromLatestSnapshot(
             String aggregateId, Class<T> aggregateClass) {
         try {
-            // First try to load from snapshot
-            var snapshotAggregate = snapshotService.restoreFromLatestSnapshot(aggregateId, aggregateClass);
-
-            if (snapshotAggregate.isPresent()) {
-                var aggregate = snapshotAggregate.get();
-                // Apply any events that occurred after the snapshot
-                var events = getEvents(aggregateId, aggregate.getVersion());
-                aggregate.loadFromHistory(events);
-                return Optional.of(aggregate);
+            var cachedRun = streamCache.findRun(aggregateId).orElse(List.of());
+            var firstCached = cachedRun.isEmpty() ? Long.MAX_VALUE : cachedRun.getFirst().getVersion();
+            var lastCached = cachedRun.isEmpty() ? Long.MAX_VALUE : cachedRun.getLast().getVersion();
+            List<Object[]> rows = entityManager.createNativeQuery(LOAD_FROM_SNAPSHOT_SQL)
+                    .setParameter("aggregateId", aggregateId)
+                    .setParameter("aggregateType", aggregateClass.getSimpleName())
+                    .setParameter("firstCached", firstCached)
+                    .setParameter("lastCached", lastCached)
+                    .getResultList();
+            if (rows.isEmpty()) {
+                return Optional.empty();
             }
 
-            return Optional.empty();
+            var snapshot = rows.getFirst();
+            var snapshotVersion = ((Number) snapshot[1]).longValue();
+            var aggregate = snapshotService.restoreSnapshot(aggregateId, (String) snapshot[2], (byte[]) snapshot[5],
+                    (String) snapshot[7], aggregateClass);
+            // Apply the events that occurred after the snapshot
+            var read = rows.subList(1, rows.size()).stream()
+                    .map(row -> deserializeEvent((String) row[3], (String) row[6], (String) row[7],
+                            (String) row[2], (byte[]) row[5], ((Number) row[4]).longValue()))
+                    .toList();
+            var events = withCachedRun(read, cachedRun, snapshotVersion + 1);
+            aggregate.loadFromHistory(events);
+
+            log.debug("Loaded aggregate {} from snapshot at version {} and {} later events, {} of them read",
+                    aggregateId, snapshotVersion, events.size(), read.size());
+            return Optional.of(aggregate);
         } catch (Exception e) {
             log.error("Failed to load aggregate from snapshot: {}", aggregateId, e);
             throw new EventStoreException("Failed to load aggregate from snapshot: " + aggregateId, e);
@@ -307,10 +668,4 @@ public class JpaEventStore implements SnapshotEventStore {
             throw new EventStoreException("Failed to create snapshot for aggregate: " + aggregate.getId(), e);
         }
     }
-
-    public static class OptimisticConcurrencyException extends RuntimeException {
-        public OptimisticConcurrencyException(String message) {
-            super(message);
-        }
-    }
 }
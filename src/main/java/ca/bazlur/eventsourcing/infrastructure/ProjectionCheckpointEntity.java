@@ -0,0 +1,45 @@
+package ca.bazlur.eventsourcing.infrastructure;
+
+import ca.bazlur.eventsourcing.core.ProjectionCheckpoint;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+
+@Setter
+@Getter
+@Entity
+@Table(name = "projection_checkpoints")
+public class ProjectionCheckpointEntity {
+
+    @Id
+    @Column(name = "projection_name", nullable = false)
+    private String projectionName;
+
+    @Column(name = "projection_version", nullable = false)
+    private int projectionVersion;
+
+    @Column(name = "position", nullable = false)
+    private long position;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    // Default constructor for JPA
+    public ProjectionCheckpointEntity() {}
+
+    public ProjectionCheckpointEntity(String projectionName, int projectionVersion, long position) {
+        this.projectionName = projectionName;
+        this.projectionVersion = projectionVersion;
+        this.position = position;
+        this.updatedAt = Instant.now();
+    }
+
+    public ProjectionCheckpoint toCheckpoint() {
+        return new ProjectionCheckpoint(projectionName, projectionVersion, position);
+    }
+}
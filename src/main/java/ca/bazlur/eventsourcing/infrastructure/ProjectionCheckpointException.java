@@ -0,0 +1,14 @@
+package ca.bazlur.eventsourcing.infrastructure;
+
+/**
+ * Exception thrown when a projection checkpoint cannot be read or written.
+ */
+public class ProjectionCheckpointException extends RuntimeException {
+    public ProjectionCheckpointException(String message) {
+        super(message);
+    }
+
+    public ProjectionCheckpointException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
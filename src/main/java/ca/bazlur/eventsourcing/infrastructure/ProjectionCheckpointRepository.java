@@ -0,0 +1,64 @@
+package ca.bazlur.eventsourcing.infrastructure;
+
+import ca.bazlur.eventsourcing.core.ProjectionCheckpoint;
+import ca.bazlur.eventsourcing.core.ProjectionCheckpointStore;
+import io.quarkus.hibernate.orm.panache.PanacheRepositoryBase;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.PersistenceException;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Repository for projection checkpoints using Panache.
+ * Saves join the caller's transaction, so a checkpoint commits together with the projection writes.
+ */
+@ApplicationScoped
+public class ProjectionCheckpointRepository
+        implements PanacheRepositoryBase<ProjectionCheckpointEntity, String>, ProjectionCheckpointStore {
+    private static final Logger log = LoggerFactory.getLogger(ProjectionCheckpointRepository.class);
+
+    @Override
+    public Optional<ProjectionCheckpoint> findCheckpoint(String projectionName) {
+        if (projectionName == null || projectionName.isBlank()) {
+            throw new IllegalArgumentException("Projection name must not be null or blank");
+        }
+        try {
+            return findByIdOptional(projectionName)
+                .map(ProjectionCheckpointEntity::toCheckpoint);
+        } catch (PersistenceException e) {
+            log.error("Failed to find checkpoint for projection: {}", projectionName, e);
+            throw new ProjectionCheckpointException(
+                "Failed to find checkpoint for projection: " + projectionName, e);
+        }
+    }
+
+    @Override
+    @Transactional
+    public void saveCheckpoint(ProjectionCheckpoint checkpoint) {
+        if (checkpoint == null) {
+            throw new IllegalArgumentException("Checkpoint must not be null");
+        }
+        try {
+            var existing = findByIdOptional(checkpoint.projectionName());
+            if (existing.isPresent()) {
+                var entity = existing.get();
+                entity.setProjectionVersion(checkpoint.projectionVersion());
+                entity.setPosition(checkpoint.position());
+                entity.setUpdatedAt(Instant.now());
+            } else {
+                persist(new ProjectionCheckpointEntity(
+                    checkpoint.projectionName(), checkpoint.projectionVersion(), checkpoint.position()));
+            }
+            log.debug("Saved checkpoint for projection: {} at position: {}",
+                checkpoint.projectionName(), checkpoint.position());
+        } catch (PersistenceException e) {
+            log.error("Failed to save checkpoint for projection: {}", checkpoint.projectionName(), e);
+            throw new ProjectionCheckpointException(
+                "Failed to save checkpoint for projection: " + checkpoint.projectionName(), e);
+        }
+    }
+}
@@ -6,11 +6,12 @@ import java.time.Instant;
 @Entity
 @Table(name = "snapshots",
     uniqueConstraints = @UniqueConstraint(
-        columnNames = {"aggregate_id", "aggregate_type"},
-        name = "uk_snapshots_aggregate"))
+        columnNames = {"aggregate_id", "aggregate_type", "version"},
+        name = "uk_snapshots_aggregate_version"))
 public class SnapshotEntity {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "snapshots_id_seq")
+    @SequenceGenerator(name = "snapshots_id_seq", sequenceName = "snapshots_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "aggregate_id", nullable = false)
@@ -22,9 +23,17 @@ public class SnapshotEntity {
     @Column(name = "version", nullable = false)
     private long version;
 
-    @Column(name = "state_data", nullable = false, columnDefinition = "jsonb")
+    // Set for uncompressed snapshots, so the state stays queryable as JSON
+    @Column(name = "state_data", columnDefinition = "jsonb")
     private String stateData;
 
+    // Set instead of state_data when the state is compressed
+    @Column(name = "state_payload")
+    private byte[] statePayload;
+
+    @Column(name = "payload_codec", length = 16)
+    private String payloadCodec;
+
     @Column(name = "created_at", nullable = false)
     private Instant createdAt;
 
@@ -80,6 +89,22 @@ public class SnapshotEntity {
         this.stateData = stateData;
     }
 
+    public byte[] getStatePayload() {
+        return statePayload;
+    }
+
+    public void setStatePayload(byte[] statePayload) {
+        this.statePayload = statePayload;
+    }
+
+    public String getPayloadCodec() {
+        return payloadCodec;
+    }
+
+    public void setPayloadCodec(String payloadCodec) {
+        this.payloadCodec = payloadCodec;
+    }
+
     public Instant getCreatedAt() {
         return createdAt;
     }
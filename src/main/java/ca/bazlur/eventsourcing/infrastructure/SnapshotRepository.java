@@ -2,8 +2,11 @@ package ca.bazlur.eventsourcing.infrastructure;
 
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
 import jakarta.persistence.PersistenceException;
 import jakarta.transaction.Transactional;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.query.NativeQuery;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -12,20 +15,75 @@ import java.util.Optional;
 /**
  * Repository for managing aggregate snapshots using Panache.
  * Provides operations for storing and retrieving aggregate state snapshots.
+ * Only the latest few snapshots of each aggregate are kept, so the table stays bounded.
  */
 @ApplicationScoped
 public class SnapshotRepository implements PanacheRepository<SnapshotEntity> {
     private static final Logger log = LoggerFactory.getLogger(SnapshotRepository.class);
 
+    // Upserts the snapshot and prunes the aggregate's history in one round trip. A version that
+    // already has the retained count of newer snapshots is not stored at all. The DELETE runs
+    // against the table as it was before the INSERT, so the new version is ranked in by hand:
+    // an older row keeps its place only if fewer than the retained count are newer than it.
+    // Concurrent saves of one aggregate are not serialized: the unique version key makes saves of
+    // the same version converge on one row, a row already pruned by another save is skipped, and
+    // each save only misses rows committed after its statement began. Those can leave one extra
+    // snapshot per concurrent writer until the aggregate's next save prunes it.
+    private static final String SAVE_SNAPSHOT_SQL = """
+        WITH upserted AS (
+            INSERT INTO snapshots (id, aggregate_id, aggregate_type, version, state_data, state_payload,
+                                   payload_codec, created_at)
+            SELECT nextval('snapshots_id_seq'), :aggregateId, :aggregateType, :version,
+                   CAST(:stateData AS jsonb), :statePayload, :payloadCodec, :createdAt
+            WHERE (SELECT count(*) FROM snapshots
+                   WHERE aggregate_id = :aggregateId AND aggregate_type = :aggregateType
+                     AND version > :version) < :retained
+            ON CONFLICT (aggregate_id, aggregate_type, version)
+            DO UPDATE SET state_data = EXCLUDED.state_data, state_payload = EXCLUDED.state_payload,
+                          payload_codec = EXCLUDED.payload_codec, created_at = EXCLUDED.created_at
+        ),
+        ranked AS (
+            SELECT id, version, row_number() OVER (ORDER BY version DESC) AS position
+            FROM snapshots
+            WHERE aggregate_id = :aggregateId AND aggregate_type = :aggregateType AND version <> :version
+        )
+        DELETE FROM snapshots s
+        USING ranked r
+        WHERE s.id = r.id
+          AND r.position + CASE WHEN r.version < :version THEN 1 ELSE 0 END > :retained
+        """;
+
+    private final int retainedSnapshots;
+
+    @Inject
+    public SnapshotRepository(
+            @ConfigProperty(name = "eventstore.snapshot.retained", defaultValue = "1") int retainedSnapshots) {
+        if (retainedSnapshots < 1) {
+            throw new IllegalArgumentException("At least 1 snapshot per aggregate must be retained");
+        }
+        this.retainedSnapshots = retainedSnapshots;
+    }
+
     @Transactional
     public void save(SnapshotEntity snapshot) {
         if (snapshot == null) {
             throw new IllegalArgumentException("Snapshot must not be null");
         }
         try {
-            persist(snapshot);
-            log.debug("Saved snapshot for aggregate: {} of type: {} at version: {}", 
-                snapshot.getAggregateId(), snapshot.getAggregateType(), snapshot.getVersion());
+            // Either state column may be null, so those are bound with explicit types
+            var pruned = getEntityManager().createNativeQuery(SAVE_SNAPSHOT_SQL)
+                .unwrap(NativeQuery.class)
+                .setParameter("aggregateId", snapshot.getAggregateId())
+                .setParameter("aggregateType", snapshot.getAggregateType())
+                .setParameter("version", snapshot.getVersion())
+                .setParameter("stateData", snapshot.getStateData(), String.class)
+                .setParameter("statePayload", snapshot.getStatePayload(), byte[].class)
+                .setParameter("payloadCodec", snapshot.getPayloadCodec(), String.class)
+                .setParameter("createdAt", snapshot.getCreatedAt())
+                .setParameter("retained", retainedSnapshots)
+                .executeUpdate();
+            log.debug("Saved snapshot for aggregate: {} of type: {} at version: {}, pruned {} older snapshots",
+                snapshot.getAggregateId(), snapshot.getAggregateType(), snapshot.getVersion(), pruned);
         } catch (PersistenceException e) {
             log.error("Failed to save snapshot for aggregate: {}", snapshot.getAggregateId(), e);
             throw new SnapshotPersistenceException(
@@ -53,9 +111,32 @@ public class SnapshotRepository implements PanacheRepository<SnapshotEntity> {
         }
     }
 
+    /**
+     * Finds the version of the latest snapshot without reading its state.
+     */
     public Optional<Long> findLatestSnapshotVersion(String aggregateId, String aggregateType) {
-        return findLatestSnapshot(aggregateId, aggregateType)
-            .map(SnapshotEntity::getVersion);
+        if (aggregateId == null || aggregateId.isBlank()) {
+            throw new IllegalArgumentException("Aggregate ID must not be null or blank");
+        }
+        if (aggregateType == null || aggregateType.isBlank()) {
+            throw new IllegalArgumentException("Aggregate type must not be null or blank");
+        }
+
+        try {
+            return getEntityManager().createQuery(
+                    "SELECT s.version FROM SnapshotEntity s WHERE s.aggregateId = :aggregateId "
+                        + "AND s.aggregateType = :aggregateType ORDER BY s.version DESC", Long.class)
+                .setParameter("aggregateId", aggregateId)
+                .setParameter("aggregateType", aggregateType)
+                .setMaxResults(1)
+                .getResultStream()
+                .findFirst();
+        } catch (PersistenceException e) {
+            log.error("Failed to find latest snapshot version for aggregate: {} of type: {}",
+                aggregateId, aggregateType, e);
+            throw new SnapshotPersistenceException(
+                "Failed to find latest snapshot version for aggregate: " + aggregateId, e);
+        }
     }
 
     @Transactional
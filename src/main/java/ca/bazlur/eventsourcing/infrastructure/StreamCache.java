@@ -0,0 +1,170 @@
+package ca.bazlur.eventsourcing.infrastructure;
+
+import ca.bazlur.eventsourcing.core.DomainEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Keeps the latest events of recently appended streams in memory, so reading a stream right after
+ * writing it, as a command following another on the same aggregate does, does not read and decode
+ * those events again.
+ * <p>
+ * A stream is cached as a contiguous run of versions ending at the head its last append committed,
+ * at most {@code max-events-per-stream} long. An append only extends the run when it continues from
+ * the cached head; otherwise the run restarts at the appended events. Events are only added once
+ * their transaction commits. The cache holds at most {@code max-streams} streams and evicts the
+ * least recently used one.
+ * <p>
+ * Committed events never change, so a cached run is never wrong, but it may end before the stream
+ * head when other processes append to the stream. Readers therefore still query the database, in the
+ * same single statement they would use anyway, but leave the cached versions out of it and take
+ * those from the run instead; whatever lies before or after the run still comes from the database.
+ */
+@ApplicationScoped
+public class StreamCache {
+    private static final Logger log = LoggerFactory.getLogger(StreamCache.class);
+
+    private final TransactionSynchronizationRegistry transactionRegistry;
+    private final boolean enabled;
+    private final int maxEventsPerStream;
+    private final Map<String, CachedStream> streams;
+
+    private final Counter hits;
+    private final Counter misses;
+
+    @Inject
+    public StreamCache(
+            TransactionSynchronizationRegistry transactionRegistry,
+            MeterRegistry meterRegistry,
+            @ConfigProperty(name = "eventstore.stream-cache.enabled", defaultValue = "false") boolean enabled,
+            @ConfigProperty(name = "eventstore.stream-cache.max-streams", defaultValue = "1000") int maxStreams,
+            @ConfigProperty(name = "eventstore.stream-cache.max-events-per-stream", defaultValue = "200")
+            int maxEventsPerStream) {
+        if (maxStreams < 1) {
+            throw new IllegalArgumentException("Stream cache must hold at least 1 stream");
+        }
+        if (maxEventsPerStream < 1) {
+            throw new IllegalArgumentException("Stream cache must hold at least 1 event per stream");
+        }
+        this.transactionRegistry = transactionRegistry;
+        this.enabled = enabled;
+        this.maxEventsPerStream = maxEventsPerStream;
+        this.streams = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedStream> eldest) {
+                return size() > maxStreams;
+            }
+        };
+
+        meterRegistry.gauge("eventstore.stream-cache.size", streams, this::size);
+        this.hits = meterRegistry.counter("eventstore.stream-cache.requests", "outcome", "hit");
+        this.misses = meterRegistry.counter("eventstore.stream-cache.requests", "outcome", "miss");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Adds appended events to the cache once the current transaction commits. Nothing is added
+     * if it rolls back. Outside a transaction the events are added right away.
+     *
+     * @param expectedVersion the version of the stream before these events
+     */
+    public void addAfterCommit(String streamId, long expectedVersion, List<DomainEvent> events) {
+        if (!enabled || events.isEmpty()) {
+            return;
+        }
+        var appended = List.copyOf(events);
+        if (transactionRegistry.getTransactionStatus() != Status.STATUS_ACTIVE) {
+            add(streamId, expectedVersion, appended);
+            return;
+        }
+        transactionRegistry.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == Status.STATUS_COMMITTED) {
+                    add(streamId, expectedVersion, appended);
+                }
+            }
+        });
+    }
+
+    /**
+     * Adds committed events to the cached run of a stream.
+     *
+     * @param expectedVersion the version of the stream before these events
+     */
+    void add(String streamId, long expectedVersion, List<DomainEvent> events) {
+        var headVersion = events.getLast().getVersion();
+        synchronized (streams) {
+            var cached = streams.get(streamId);
+            if (cached != null && cached.headVersion() >= headVersion) {
+                // A later append committed and was cached first; these events are already covered
+                return;
+            }
+            var run = new ArrayList<DomainEvent>();
+            if (cached != null && cached.headVersion() == expectedVersion) {
+                run.addAll(cached.events());
+            }
+            run.addAll(events);
+            var kept = run.subList(Math.max(0, run.size() - maxEventsPerStream), run.size());
+            streams.put(streamId, new CachedStream(List.copyOf(kept)));
+        }
+    }
+
+    /**
+     * Finds the cached run of a stream.
+     *
+     * @return the cached events in version order, never empty, or empty if the stream is not cached
+     */
+    public Optional<List<DomainEvent>> findRun(String streamId) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        CachedStream cached;
+        synchronized (streams) {
+            cached = streams.get(streamId);
+        }
+        if (cached == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(cached.events());
+    }
+
+    private int size(Map<String, CachedStream> cachedStreams) {
+        synchronized (cachedStreams) {
+            return cachedStreams.size();
+        }
+    }
+
+    private record CachedStream(List<DomainEvent> events) {
+        long firstVersion() {
+            return events.getFirst().getVersion();
+        }
+
+        long headVersion() {
+            return events.getLast().getVersion();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package ca.bazlur.eventsourcing.infrastructure;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * The head of an event stream: the version of its last appended event. Appends move it forward
+ * with a conditional update, which is where concurrent writers to one stream are told apart.
+ */
+@Setter
+@Getter
+@Entity
+@Table(name = "streams")
+public class StreamEntity {
+
+    @Id
+    @Column(name = "stream_id", nullable = false)
+    private String streamId;
+
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    // Default constructor for JPA
+    public StreamEntity() {}
+}
@@ -0,0 +1,142 @@
+package ca.bazlur.eventsourcing.infrastructure.serialization;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Adler32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compresses payloads with zlib deflate, optionally primed with a preset dictionary.
+ * <p>
+ * Small payloads such as single events compress poorly on their own, since most of their bytes
+ * (field names, type ids, enum values) only repeat across payloads. A dictionary of typical
+ * payload content lets deflate refer back to it from the first byte. The stream records the
+ * Adler-32 checksum of the dictionary it was written with, so the codec can hold several: the
+ * first one writes, and any of them reads the payloads written with it. A payload written with
+ * a dictionary that is no longer configured cannot be read.
+ */
+public class DeflateCodec implements PayloadCodec {
+    public static final String NAME = "deflate";
+    // Deflate only looks back 32 KiB, so a longer dictionary is never used
+    public static final int MAX_DICTIONARY_SIZE = 32 * 1024;
+
+    private final byte[] dictionary;
+    private final Map<Long, byte[]> dictionariesById = new HashMap<>();
+
+    public DeflateCodec() {
+        this(List.of());
+    }
+
+    public DeflateCodec(byte[] dictionary) {
+        this(dictionary == null ? List.of() : List.of(dictionary));
+    }
+
+    /**
+     * @param dictionaries the dictionaries payloads may have been written with, the one to write
+     *                     new payloads with first
+     */
+    public DeflateCodec(List<byte[]> dictionaries) {
+        for (var candidate : dictionaries) {
+            if (candidate.length > MAX_DICTIONARY_SIZE) {
+                throw new IllegalArgumentException("Deflate dictionary cannot exceed " + MAX_DICTIONARY_SIZE + " bytes");
+            }
+            var known = dictionariesById.putIfAbsent(adler32(candidate), candidate);
+            if (known != null && !Arrays.equals(known, candidate)) {
+                throw new IllegalArgumentException("Two deflate dictionaries share the id " + adler32(candidate));
+            }
+        }
+        this.dictionary = dictionaries.isEmpty() ? null : dictionaries.getFirst();
+    }
+
+    /**
+     * Builds a dictionary from sample payloads. Deflate matches most cheaply against the end of
+     * the dictionary, so the samples are concatenated with the most representative last and the
+     * result is cut to the last {@link #MAX_DICTIONARY_SIZE} bytes.
+     *
+     * @param samples typical payloads, least representative first
+     * @return a dictionary to configure with the codec
+     */
+    public static byte[] trainDictionary(List<byte[]> samples) {
+        var tail = new ArrayList<byte[]>();
+        int size = 0;
+        for (int i = samples.size() - 1; i >= 0 && size < MAX_DICTIONARY_SIZE; i--) {
+            tail.addFirst(samples.get(i));
+            size += samples.get(i).length;
+        }
+        var out = new ByteArrayOutputStream(size);
+        tail.forEach(out::writeBytes);
+        var bytes = out.toByteArray();
+        return bytes.length <= MAX_DICTIONARY_SIZE
+            ? bytes
+            : Arrays.copyOfRange(bytes, bytes.length - MAX_DICTIONARY_SIZE, bytes.length);
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public byte[] encode(byte[] payload) {
+        var deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        try {
+            if (dictionary != null) {
+                deflater.setDictionary(dictionary);
+            }
+            deflater.setInput(payload);
+            deflater.finish();
+            var out = new ByteArrayOutputStream(payload.length / 2 + 16);
+            var buffer = new byte[4096];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    @Override
+    public byte[] decode(byte[] encoded) {
+        var inflater = new Inflater();
+        try {
+            inflater.setInput(encoded);
+            var out = new ByteArrayOutputStream(encoded.length * 3);
+            var buffer = new byte[4096];
+            while (!inflater.finished()) {
+                var read = inflater.inflate(buffer);
+                if (read == 0) {
+                    if (inflater.needsDictionary()) {
+                        var written = dictionariesById.get(inflater.getAdler());
+                        if (written == null) {
+                            throw new PayloadCompressionException(
+                                "Payload was compressed with a dictionary that is not configured (id "
+                                    + inflater.getAdler() + ")");
+                        }
+                        inflater.setDictionary(written);
+                    } else if (inflater.needsInput()) {
+                        throw new PayloadCompressionException("Compressed payload is truncated");
+                    }
+                }
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException e) {
+            throw new PayloadCompressionException("Failed to inflate payload", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static long adler32(byte[] bytes) {
+        var adler = new Adler32();
+        adler.update(bytes);
+        return adler.getValue();
+    }
+}
@@ -0,0 +1,13 @@
+package ca.bazlur.eventsourcing.infrastructure.serialization;
+
+import ca.bazlur.eventsourcing.core.EventStoreException;
+
+public class EventSerializationException extends EventStoreException {
+    public EventSerializationException(String message) {
+        super(message);
+    }
+
+    public EventSerializationException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,68 @@
+package ca.bazlur.eventsourcing.infrastructure.serialization;
+
+import ca.bazlur.eventsourcing.core.EventSerializer;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Holds every available event serializer: new events are written with the one configured for
+ * the deployment, and each stored event is read with the one named by its payload format.
+ */
+@ApplicationScoped
+public class EventSerializerRegistry {
+    private static final Logger log = LoggerFactory.getLogger(EventSerializerRegistry.class);
+
+    private final Map<String, EventSerializer> serializersByFormat;
+    private final EventSerializer writer;
+
+    @Inject
+    public EventSerializerRegistry(
+            Instance<EventSerializer> serializers,
+            @ConfigProperty(name = "eventstore.serializer.format", defaultValue = JsonEventSerializer.FORMAT) String format) {
+        this(serializers.stream().toList(), format);
+    }
+
+    public EventSerializerRegistry(Iterable<? extends EventSerializer> serializers, String format) {
+        var byFormat = new HashMap<String, EventSerializer>();
+        for (var serializer : serializers) {
+            if (byFormat.putIfAbsent(serializer.getFormat(), serializer) != null) {
+                throw new IllegalStateException("Duplicate event serializer for format: " + serializer.getFormat());
+            }
+        }
+        this.serializersByFormat = Map.copyOf(byFormat);
+        this.writer = serializersByFormat.get(format);
+        if (writer == null) {
+            throw new IllegalArgumentException("Unknown event serializer format: " + format
+                + ", available formats are " + serializersByFormat.keySet());
+        }
+        log.info("Writing events as {}", format);
+    }
+
+    /**
+     * Gets the serializer new events are written with.
+     */
+    public EventSerializer writer() {
+        return writer;
+    }
+
+    /**
+     * Gets the serializer for a stored payload format.
+     *
+     * @param format the stored format, or null for events written before formats were recorded
+     * @throws EventSerializationException if no serializer handles the format
+     */
+    public EventSerializer forFormat(String format) {
+        var serializer = serializersByFormat.get(format == null ? JsonEventSerializer.FORMAT : format);
+        if (serializer == null) {
+            throw new EventSerializationException("No event serializer for payload format: " + format);
+        }
+        return serializer;
+    }
+}
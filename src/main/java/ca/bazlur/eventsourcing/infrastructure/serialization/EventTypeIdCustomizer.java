@@ -0,0 +1,77 @@
+package ca.bazlur.eventsourcing.infrastructure.serialization;
+
+import ca.bazlur.eventsourcing.core.EventSchemaManager;
+import ca.bazlur.eventsourcing.core.EventTypeIdResolver;
+import com.fasterxml.jackson.databind.DeserializationConfig;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.KeyDeserializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.cfg.HandlerInstantiator;
+import com.fasterxml.jackson.databind.cfg.MapperConfig;
+import com.fasterxml.jackson.databind.introspect.Annotated;
+import com.fasterxml.jackson.databind.jsontype.TypeIdResolver;
+import com.fasterxml.jackson.databind.jsontype.TypeResolverBuilder;
+import io.quarkus.jackson.ObjectMapperCustomizer;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+
+/**
+ * Hands the application's {@link ObjectMapper} an {@link EventTypeIdResolver} backed by the
+ * schema manager, so events are written with their compact type ids. Mappers copied from it,
+ * such as the Smile one, inherit the resolver.
+ */
+@Singleton
+public class EventTypeIdCustomizer implements ObjectMapperCustomizer {
+    private final EventSchemaManager schemaManager;
+
+    @Inject
+    public EventTypeIdCustomizer(EventSchemaManager schemaManager) {
+        this.schemaManager = schemaManager;
+    }
+
+    @Override
+    public void customize(ObjectMapper objectMapper) {
+        objectMapper.setHandlerInstantiator(new EventTypeIdInstantiator(schemaManager));
+    }
+
+    // Returning null for anything else lets Jackson create the handler as usual
+    private static final class EventTypeIdInstantiator extends HandlerInstantiator {
+        private final EventSchemaManager schemaManager;
+
+        EventTypeIdInstantiator(EventSchemaManager schemaManager) {
+            this.schemaManager = schemaManager;
+        }
+
+        @Override
+        public TypeIdResolver typeIdResolverInstance(MapperConfig<?> config, Annotated annotated,
+                                                     Class<?> resolverClass) {
+            return resolverClass == EventTypeIdResolver.class ? new EventTypeIdResolver(schemaManager) : null;
+        }
+
+        @Override
+        public JsonDeserializer<?> deserializerInstance(DeserializationConfig config, Annotated annotated,
+                                                        Class<?> deserClass) {
+            return null;
+        }
+
+        @Override
+        public KeyDeserializer keyDeserializerInstance(DeserializationConfig config, Annotated annotated,
+                                                       Class<?> keyDeserClass) {
+            return null;
+        }
+
+        @Override
+        public JsonSerializer<?> serializerInstance(SerializationConfig config, Annotated annotated,
+                                                    Class<?> serClass) {
+            return null;
+        }
+
+        @Override
+        public TypeResolverBuilder<?> typeResolverBuilderInstance(MapperConfig<?> config, Annotated annotated,
+                                                                  Class<?> builderClass) {
+            return null;
+        }
+    }
+}
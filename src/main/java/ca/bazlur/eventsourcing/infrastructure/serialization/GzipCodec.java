@@ -0,0 +1,39 @@
+package ca.bazlur.eventsourcing.infrastructure.serialization;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compresses payloads as gzip, which any tool can inspect once the bytes are exported.
+ */
+public class GzipCodec implements PayloadCodec {
+    public static final String NAME = "gzip";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public byte[] encode(byte[] payload) {
+        var out = new ByteArrayOutputStream(payload.length / 2);
+        try (var gzip = new GZIPOutputStream(out)) {
+            gzip.write(payload);
+        } catch (IOException e) {
+            throw new PayloadCompressionException("Failed to gzip payload", e);
+        }
+        return out.toByteArray();
+    }
+
+    @Override
+    public byte[] decode(byte[] encoded) {
+        try (var gzip = new GZIPInputStream(new ByteArrayInputStream(encoded))) {
+            return gzip.readAllBytes();
+        } catch (IOException e) {
+            throw new PayloadCompressionException("Failed to gunzip payload", e);
+        }
+    }
+}
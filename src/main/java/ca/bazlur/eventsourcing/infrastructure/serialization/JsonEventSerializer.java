@@ -0,0 +1,53 @@
+package ca.bazlur.eventsourcing.infrastructure.serialization;
+
+import ca.bazlur.eventsourcing.core.DomainEvent;
+import ca.bazlur.eventsourcing.core.EventSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.io.IOException;
+
+/**
+ * Writes events as JSON text, stored in the {@code jsonb} column where they can be queried ad hoc.
+ * This is the format of every event written before payload formats existed.
+ */
+@ApplicationScoped
+public class JsonEventSerializer implements EventSerializer {
+    public static final String FORMAT = "json";
+
+    private final ObjectMapper objectMapper;
+
+    @Inject
+    public JsonEventSerializer(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public String getFormat() {
+        return FORMAT;
+    }
+
+    @Override
+    public boolean isTextual() {
+        return true;
+    }
+
+    @Override
+    public byte[] serialize(DomainEvent event) {
+        try {
+            return objectMapper.writeValueAsBytes(event);
+        } catch (IOException e) {
+            throw new EventSerializationException("Failed to convert DomainEvent to JSON: " + event, e);
+        }
+    }
+
+    @Override
+    public DomainEvent deserialize(byte[] payload) {
+        try {
+            return objectMapper.readValue(payload, DomainEvent.class);
+        } catch (IOException e) {
+            throw new EventSerializationException("Failed to read DomainEvent from JSON", e);
+        }
+    }
+}
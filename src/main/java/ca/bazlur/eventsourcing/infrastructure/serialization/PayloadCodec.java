@@ -0,0 +1,20 @@
+package ca.bazlur.eventsourcing.infrastructure.serialization;
+
+/**
+ * Compresses stored payloads. The codec name is stored next to every compressed payload, so
+ * payloads written with any known codec, or with none, stay readable after the configured
+ * codec changes.
+ */
+public interface PayloadCodec {
+
+    /**
+     * Gets the name stored with each payload compressed by this codec.
+     *
+     * @return the codec name, unique among codecs
+     */
+    String getName();
+
+    byte[] encode(byte[] payload);
+
+    byte[] decode(byte[] encoded);
+}
@@ -0,0 +1,13 @@
+package ca.bazlur.eventsourcing.infrastructure.serialization;
+
+import ca.bazlur.eventsourcing.core.EventStoreException;
+
+public class PayloadCompressionException extends EventStoreException {
+    public PayloadCompressionException(String message) {
+        super(message);
+    }
+
+    public PayloadCompressionException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
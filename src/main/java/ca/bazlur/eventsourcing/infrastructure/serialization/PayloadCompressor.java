@@ -0,0 +1,136 @@
+package ca.bazlur.eventsourcing.infrastructure.serialization;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compresses event and snapshot payloads above a size threshold with the configured codec, and
+ * decompresses stored payloads with the codec recorded next to them.
+ * <p>
+ * Payloads below the threshold, and payloads that would not shrink, are stored as they are.
+ * The achieved ratio and the time spent per codec are recorded as
+ * {@code eventstore.compression.ratio} and {@code eventstore.compression.time}.
+ */
+@ApplicationScoped
+public class PayloadCompressor {
+    private static final Logger log = LoggerFactory.getLogger(PayloadCompressor.class);
+    public static final String NONE = "none";
+
+    private final Map<String, PayloadCodec> codecsByName;
+    private final PayloadCodec writeCodec;
+    private final int thresholdBytes;
+    private final MeterRegistry meterRegistry;
+
+    @Inject
+    public PayloadCompressor(
+            @ConfigProperty(name = "eventstore.compression.codec", defaultValue = NONE) String codec,
+            @ConfigProperty(name = "eventstore.compression.threshold-bytes", defaultValue = "1024") int thresholdBytes,
+            @ConfigProperty(name = "eventstore.compression.dictionaries") Optional<List<String>> dictionaryPaths,
+            MeterRegistry meterRegistry) {
+        this(codec, thresholdBytes, dictionaryPaths.orElse(List.of()).stream()
+            .map(PayloadCompressor::readDictionary)
+            .toList(), meterRegistry);
+    }
+
+    /**
+     * @param dictionaries the deflate dictionaries stored payloads may use, the one to write with first
+     */
+    public PayloadCompressor(String codec, int thresholdBytes, List<byte[]> dictionaries, MeterRegistry meterRegistry) {
+        if (thresholdBytes < 0) {
+            throw new IllegalArgumentException("Compression threshold cannot be negative");
+        }
+        this.codecsByName = Map.of(
+            GzipCodec.NAME, new GzipCodec(),
+            DeflateCodec.NAME, new DeflateCodec(dictionaries));
+        this.writeCodec = NONE.equals(codec) ? null : codecsByName.get(codec);
+        if (writeCodec == null && !NONE.equals(codec)) {
+            throw new IllegalArgumentException("Unknown compression codec: " + codec
+                + ", available codecs are " + codecsByName.keySet() + " and " + NONE);
+        }
+        this.thresholdBytes = thresholdBytes;
+        this.meterRegistry = meterRegistry;
+        if (writeCodec != null) {
+            log.info("Compressing payloads of {} bytes or more with {}{}", thresholdBytes, codec,
+                dictionaries.isEmpty() ? "" : " and a " + dictionaries.getFirst().length + " byte dictionary");
+        }
+    }
+
+    /**
+     * Compresses a payload if it is large enough and compression is enabled.
+     *
+     * @return the bytes to store, with the codec to store next to them or null if uncompressed
+     */
+    public Encoded compress(byte[] payload) {
+        if (writeCodec == null || payload.length < thresholdBytes) {
+            return new Encoded(payload, null);
+        }
+        var start = System.nanoTime();
+        var compressed = writeCodec.encode(payload);
+        timer(writeCodec.getName(), "compress").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        if (compressed.length >= payload.length) {
+            return new Encoded(payload, null);
+        }
+        DistributionSummary.builder("eventstore.compression.ratio")
+            .description("Uncompressed size divided by compressed size")
+            .tag("codec", writeCodec.getName())
+            .register(meterRegistry)
+            .record((double) payload.length / compressed.length);
+        return new Encoded(compressed, writeCodec.getName());
+    }
+
+    /**
+     * Restores a stored payload.
+     *
+     * @param codec the codec stored with the payload, or null if it is uncompressed
+     * @throws PayloadCompressionException if the codec is unknown or the payload is corrupt
+     */
+    public byte[] decompress(byte[] stored, String codec) {
+        if (codec == null) {
+            return stored;
+        }
+        var payloadCodec = codecsByName.get(codec);
+        if (payloadCodec == null) {
+            throw new PayloadCompressionException("No codec for compressed payload: " + codec);
+        }
+        var start = System.nanoTime();
+        var payload = payloadCodec.decode(stored);
+        timer(codec, "decompress").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return payload;
+    }
+
+    private Timer timer(String codec, String operation) {
+        return Timer.builder("eventstore.compression.time")
+            .tag("codec", codec)
+            .tag("operation", operation)
+            .register(meterRegistry);
+    }
+
+    private static byte[] readDictionary(String path) {
+        try {
+            return Files.readAllBytes(Path.of(path));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Failed to read compression dictionary: " + path, e);
+        }
+    }
+
+    public record Encoded(byte[] bytes, String codec) {
+        public boolean isCompressed() {
+            return codec != null;
+        }
+    }
+}
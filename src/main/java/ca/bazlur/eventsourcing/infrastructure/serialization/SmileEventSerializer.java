@@ -0,0 +1,51 @@
+package ca.bazlur.eventsourcing.infrastructure.serialization;
+
+import ca.bazlur.eventsourcing.core.DomainEvent;
+import ca.bazlur.eventsourcing.core.EventSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.io.IOException;
+
+/**
+ * Writes events as Smile, Jackson's binary encoding of the JSON data model. It uses the same
+ * mapping as the JSON form, so any event that round-trips as JSON round-trips here, but
+ * payloads are smaller and cheaper to parse, and the database stores them without parsing.
+ */
+@ApplicationScoped
+public class SmileEventSerializer implements EventSerializer {
+    public static final String FORMAT = "smile";
+
+    private final ObjectMapper smileMapper;
+
+    @Inject
+    public SmileEventSerializer(ObjectMapper objectMapper) {
+        // Same modules and settings as the JSON mapper, different wire format
+        this.smileMapper = objectMapper.copyWith(new SmileFactory());
+    }
+
+    @Override
+    public String getFormat() {
+        return FORMAT;
+    }
+
+    @Override
+    public byte[] serialize(DomainEvent event) {
+        try {
+            return smileMapper.writeValueAsBytes(event);
+        } catch (IOException e) {
+            throw new EventSerializationException("Failed to convert DomainEvent to Smile: " + event, e);
+        }
+    }
+
+    @Override
+    public DomainEvent deserialize(byte[] payload) {
+        try {
+            return smileMapper.readValue(payload, DomainEvent.class);
+        } catch (IOException e) {
+            throw new EventSerializationException("Failed to read DomainEvent from Smile", e);
+        }
+    }
+}
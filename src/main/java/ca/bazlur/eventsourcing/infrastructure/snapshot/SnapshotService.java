@@ -3,12 +3,14 @@ package ca.bazlur.eventsourcing.infrastructure.snapshot;
 import ca.bazlur.eventsourcing.core.AggregateRoot;
 import ca.bazlur.eventsourcing.infrastructure.SnapshotEntity;
 import ca.bazlur.eventsourcing.infrastructure.SnapshotRepository;
+import ca.bazlur.eventsourcing.infrastructure.serialization.PayloadCompressor;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.transaction.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Optional;
 
 /**
@@ -21,13 +23,16 @@ public class SnapshotService {
     private final SnapshotRepository snapshotRepository;
     private final SnapshotStrategy snapshotStrategy;
     private final ObjectMapper objectMapper;
+    private final PayloadCompressor payloadCompressor;
 
     public SnapshotService(SnapshotRepository snapshotRepository,
                           SnapshotStrategy snapshotStrategy,
-                          ObjectMapper objectMapper) {
+                          ObjectMapper objectMapper,
+                          PayloadCompressor payloadCompressor) {
         this.snapshotRepository = snapshotRepository;
         this.snapshotStrategy = snapshotStrategy;
         this.objectMapper = objectMapper;
+        this.payloadCompressor = payloadCompressor;
     }
 
     /**
@@ -59,6 +64,17 @@ public class SnapshotService {
         }
     }
 
+    /**
+     * Determines from version arithmetic alone whether an append crossed a snapshot boundary.
+     *
+     * @param fromVersion The version of the aggregate before the append
+     * @param toVersion The version of the aggregate after the append
+     * @return true if a snapshot is due, false otherwise
+     */
+    public boolean isSnapshotDue(long fromVersion, long toVersion) {
+        return snapshotStrategy.isSnapshotDue(fromVersion, toVersion);
+    }
+
     /**
      * Creates a snapshot of the current aggregate state.
      *
@@ -72,7 +88,14 @@ public class SnapshotService {
             var version = aggregate.getVersion();
             var serializedState = objectMapper.writeValueAsString(aggregate);
 
-            var snapshot = new SnapshotEntity(aggregateId, aggregateType, version, serializedState);
+            // Large states are stored compressed instead of as jsonb
+            var encoded = payloadCompressor.compress(serializedState.getBytes(StandardCharsets.UTF_8));
+            var snapshot = new SnapshotEntity(aggregateId, aggregateType, version,
+                encoded.isCompressed() ? null : serializedState);
+            if (encoded.isCompressed()) {
+                snapshot.setStatePayload(encoded.bytes());
+                snapshot.setPayloadCodec(encoded.codec());
+            }
             snapshotRepository.save(snapshot);
 
             log.info("Created snapshot for aggregate: {} of type: {} at version: {}",
@@ -103,15 +126,34 @@ public class SnapshotService {
         }
     }
 
-    private <T extends AggregateRoot> T deserializeSnapshot(
-            SnapshotEntity snapshot, Class<T> aggregateClass) {
+    /**
+     * Restores an aggregate from snapshot state that has already been read.
+     *
+     * @param aggregateId The ID of the aggregate to restore
+     * @param stateData The serialized state of the snapshot, or null if it is compressed
+     * @param statePayload The compressed state of the snapshot, or null if it is not
+     * @param payloadCodec The codec the state is compressed with, or null if it is not
+     * @param aggregateClass The class of the aggregate
+     * @return the restored aggregate
+     */
+    public <T extends AggregateRoot> T restoreSnapshot(
+            String aggregateId, String stateData, byte[] statePayload, String payloadCodec,
+            Class<T> aggregateClass) {
         try {
-            return objectMapper.readValue(snapshot.getStateData(), aggregateClass);
+            if (statePayload != null) {
+                return objectMapper.readValue(payloadCompressor.decompress(statePayload, payloadCodec), aggregateClass);
+            }
+            return objectMapper.readValue(stateData, aggregateClass);
         } catch (Exception e) {
-            log.error("Failed to deserialize snapshot for aggregate: {}", 
-                snapshot.getAggregateId(), e);
+            log.error("Failed to deserialize snapshot for aggregate: {}", aggregateId, e);
             throw new SnapshotRestorationException(
-                "Failed to deserialize snapshot for aggregate: " + snapshot.getAggregateId(), e);
+                "Failed to deserialize snapshot for aggregate: " + aggregateId, e);
         }
     }
+
+    private <T extends AggregateRoot> T deserializeSnapshot(
+            SnapshotEntity snapshot, Class<T> aggregateClass) {
+        return restoreSnapshot(snapshot.getAggregateId(), snapshot.getStateData(), snapshot.getStatePayload(),
+            snapshot.getPayloadCodec(), aggregateClass);
+    }
 }
\ No newline at end of file
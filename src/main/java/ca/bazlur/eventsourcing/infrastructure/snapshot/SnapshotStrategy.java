@@ -25,4 +25,18 @@ public interface SnapshotStrategy {
      * @return the snapshot frequency
      */
     int getSnapshotFrequency();
-}
\ No newline at end of file
+
+    /**
+     * Determines whether an append moving an aggregate between the given versions crosses a
+     * snapshot boundary. Unlike {@link #shouldCreateSnapshot}, this is plain version arithmetic
+     * and needs no lookup of the last snapshot, so it can run on every append.
+     *
+     * @param fromVersion The version of the aggregate before the append
+     * @param toVersion The version of the aggregate after the append
+     * @return true if a snapshot is due, false otherwise
+     */
+    default boolean isSnapshotDue(long fromVersion, long toVersion) {
+        var frequency = getSnapshotFrequency();
+        return frequency > 0 && toVersion / frequency > fromVersion / frequency;
+    }
+}
@@ -0,0 +1,212 @@
+package ca.bazlur.eventsourcing.infrastructure.snapshot;
+
+import ca.bazlur.eventsourcing.core.AggregateRoot;
+import ca.bazlur.eventsourcing.core.SnapshotEventStore;
+import ca.bazlur.eventsourcing.infrastructure.AggregateRegistry.AggregateType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Takes snapshots in the background, off the append path.
+ * <p>
+ * A snapshot request names an aggregate, not a state: the worker rebuilds the aggregate from its
+ * latest snapshot and the events after it, and snapshots whatever it finds, in its own transaction.
+ * Requests are only queued once the append that triggered them has committed. Requests for an
+ * aggregate that is already waiting are coalesced into the waiting one. When the queue is full
+ * the request is dropped: the next snapshot boundary of that aggregate asks again, and loading
+ * it in the meantime only replays a few more events.
+ */
+@ApplicationScoped
+public class SnapshotWriter {
+    private static final Logger log = LoggerFactory.getLogger(SnapshotWriter.class);
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    private final SnapshotEventStore eventStore;
+    private final SnapshotService snapshotService;
+    private final TransactionSynchronizationRegistry transactionRegistry;
+    private final int workers;
+    private final BlockingQueue<String> queue;
+    private final ConcurrentMap<String, SnapshotRequest> pending = new ConcurrentHashMap<>();
+
+    private final Timer lag;
+    private final Counter written;
+    private final Counter coalesced;
+    private final Counter dropped;
+    private final Counter failed;
+
+    private volatile boolean running;
+    private final List<Thread> threads = new ArrayList<>();
+
+    @Inject
+    public SnapshotWriter(
+            SnapshotEventStore eventStore,
+            SnapshotService snapshotService,
+            TransactionSynchronizationRegistry transactionRegistry,
+            MeterRegistry meterRegistry,
+            @ConfigProperty(name = "eventstore.snapshot.workers", defaultValue = "2") int workers,
+            @ConfigProperty(name = "eventstore.snapshot.queue-capacity", defaultValue = "1000") int queueCapacity) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("Snapshot writer needs at least 1 worker");
+        }
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("Snapshot queue capacity must be at least 1");
+        }
+        this.eventStore = eventStore;
+        this.snapshotService = snapshotService;
+        this.transactionRegistry = transactionRegistry;
+        this.workers = workers;
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+
+        meterRegistry.gauge("eventstore.snapshot.queue.depth", queue, BlockingQueue::size);
+        this.lag = Timer.builder("eventstore.snapshot.lag")
+                .description("Time from the committed append to the start of its snapshot")
+                .register(meterRegistry);
+        this.written = meterRegistry.counter("eventstore.snapshot.requests", "outcome", "written");
+        this.coalesced = meterRegistry.counter("eventstore.snapshot.requests", "outcome", "coalesced");
+        this.dropped = meterRegistry.counter("eventstore.snapshot.requests", "outcome", "dropped");
+        this.failed = meterRegistry.counter("eventstore.snapshot.requests", "outcome", "failed");
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        for (int i = 0; i < workers; i++) {
+            threads.add(Thread.ofVirtual().name("event-store-snapshot-", i).start(this::drain));
+        }
+        log.info("Snapshot writer started with {} workers", workers);
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        threads.forEach(Thread::interrupt);
+        for (var thread : threads) {
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        threads.clear();
+        if (!pending.isEmpty()) {
+            log.info("Snapshot writer stopped with {} snapshots still pending", pending.size());
+        }
+    }
+
+    /**
+     * Requests a snapshot of an aggregate once the current transaction commits. Nothing is
+     * requested if it rolls back. Outside a transaction the request is queued right away.
+     *
+     * @param aggregateId   the ID of the aggregate to snapshot
+     * @param aggregateType the type of the aggregate
+     */
+    public void requestAfterCommit(String aggregateId, AggregateType<?> aggregateType) {
+        if (transactionRegistry.getTransactionStatus() != Status.STATUS_ACTIVE) {
+            request(aggregateId, aggregateType);
+            return;
+        }
+        transactionRegistry.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == Status.STATUS_COMMITTED) {
+                    request(aggregateId, aggregateType);
+                }
+            }
+        });
+    }
+
+    /**
+     * Queues a snapshot of an aggregate without waiting for it.
+     *
+     * @return false if the request was dropped because the queue is full
+     */
+    public boolean request(String aggregateId, AggregateType<?> aggregateType) {
+        var key = aggregateType.aggregateClass().getSimpleName() + ":" + aggregateId;
+        var request = new SnapshotRequest(aggregateId, aggregateType, System.nanoTime());
+        if (pending.putIfAbsent(key, request) != null) {
+            coalesced.increment();
+            return true;
+        }
+        if (!queue.offer(key)) {
+            pending.remove(key, request);
+            dropped.increment();
+            log.debug("Snapshot queue is full, dropping snapshot of aggregate {}", aggregateId);
+            return false;
+        }
+        return true;
+    }
+
+    private void drain() {
+        while (running) {
+            try {
+                var key = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (key == null) {
+                    continue;
+                }
+                // Removed before the snapshot starts, so a request arriving meanwhile queues a newer one
+                var request = pending.remove(key);
+                if (request != null) {
+                    write(request);
+                }
+            } catch (InterruptedException e) {
+                log.debug("Snapshot worker interrupted");
+            } catch (Exception e) {
+                log.error("Snapshot worker failed", e);
+            }
+        }
+    }
+
+    private void write(SnapshotRequest request) {
+        lag.record(System.nanoTime() - request.requestedAt(), TimeUnit.NANOSECONDS);
+        try {
+            QuarkusTransaction.requiringNew().run(() ->
+                    snapshotService.createSnapshot(rehydrate(request.aggregateId(), request.aggregateType())));
+            written.increment();
+        } catch (Exception e) {
+            failed.increment();
+            log.warn("Failed to create snapshot for aggregate {}: {}", request.aggregateId(), e.getMessage());
+            log.debug("Snapshot creation failure details", e);
+        }
+    }
+
+    private AggregateRoot rehydrate(String aggregateId, AggregateType<?> aggregateType) {
+        var fromSnapshot = eventStore.loadFromLatestSnapshot(aggregateId, aggregateType.aggregateClass());
+        if (fromSnapshot.isPresent()) {
+            return fromSnapshot.get();
+        }
+        // First snapshot of the stream: the history is at most one snapshot interval long
+        AggregateRoot aggregate = aggregateType.create(aggregateId);
+        try (var events = eventStore.streamEvents(aggregateId, 0L)) {
+            aggregate.loadFromHistory(events);
+        }
+        return aggregate;
+    }
+
+    private record SnapshotRequest(String aggregateId, AggregateType<?> aggregateType, long requestedAt) {
+    }
+}
@@ -7,22 +7,46 @@ import lombok.Setter;
 import java.math.BigDecimal;
 
 @Entity
-@Table(name = "order_item_projections")
+@Table(name = OrderItemProjectionEntity.TABLE,
+    indexes = @Index(name = OrderItemProjectionEntity.ORDER_ID_INDEX, columnList = "order_id"),
+    uniqueConstraints = @UniqueConstraint(name = OrderItemProjectionEntity.ORDER_VERSION_KEY,
+        columnNames = {"order_id", "version"}))
 @Getter
 @Setter
 public class OrderItemProjectionEntity {
+    static final String TABLE = "order_item_projections";
+    static final String ORDER_ID_INDEX = "idx_order_item_projections_order_id";
+    static final String ORDER_FOREIGN_KEY = "fk_order_item_projections_order";
+    // One item per event: the version of the event that added it, unique within its order
+    static final String ORDER_VERSION_KEY = "uk_order_item_projections_order_version";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_item_projections_id_seq")
+    @SequenceGenerator(name = "order_item_projections_id_seq", sequenceName = "order_item_projections_id_seq",
+        allocationSize = 50)
+    @Column(name = "id")
     private Long id;
 
+    @Column(name = "product_id")
     private String productId;
+
+    @Column(name = "product_name")
     private String productName;
+
+    @Column(name = "quantity")
     private int quantity;
+
+    @Column(name = "price")
     private BigDecimal price;
+
+    @Column(name = "total_price")
     private BigDecimal totalPrice;
 
+    @Column(name = "version")
+    private Long version;
+
     @ManyToOne
-    @JoinColumn(name = "order_id")
+    @JoinColumn(name = "order_id", foreignKey = @ForeignKey(name = ORDER_FOREIGN_KEY))
     private OrderProjectionEntity order;
 
     public OrderProjectionModel.OrderItemProjection toModel() {
@@ -31,7 +55,8 @@ public class OrderItemProjectionEntity {
             productName,
             quantity,
             price,
-            totalPrice
+            totalPrice,
+            version
         );
     }
 
@@ -42,6 +67,7 @@ public class OrderItemProjectionEntity {
         entity.setQuantity(model.getQuantity());
         entity.setPrice(model.getPrice());
         entity.setTotalPrice(model.getTotalPrice());
+        entity.setVersion(model.getVersion());
         return entity;
     }
 }
\ No newline at end of file
@@ -15,11 +15,15 @@ import org.slf4j.LoggerFactory;
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
 
 @ApplicationScoped
 public class OrderProjection implements Projection<OrderProjectionModel> {
@@ -31,6 +35,7 @@ public class OrderProjection implements Projection<OrderProjectionModel> {
     private final Map<String, List<OrderProjectionModel>> customerCache;
 
     private final ReadWriteLock cacheLock = new ReentrantReadWriteLock();
+    private volatile boolean rebuildingInShadow;
 
     @Inject
     public OrderProjection(OrderProjectionRepository repository) {
@@ -60,6 +65,17 @@ public class OrderProjection implements Projection<OrderProjectionModel> {
         log.debug("Cache updated for order: {}, cache size: {}", model.getId(), cache.size());
     }
 
+    private void evict(OrderProjectionModel model) {
+        var writeLock = cacheLock.writeLock();
+        try {
+            writeLock.lock();
+            cache.remove(model.getId());
+            customerCache.remove(model.getCustomerId());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
     private void invalidateCache() {
         var writeLock = cacheLock.writeLock();
         try {
@@ -72,6 +88,11 @@ public class OrderProjection implements Projection<OrderProjectionModel> {
         }
     }
 
+    @Override
+    public Set<Class<? extends DomainEvent>> getHandledEventTypes() {
+        return Set.of(OrderCreatedEvent.class, OrderItemAddedEvent.class);
+    }
+
     @Override
     @Transactional
     public void handle(DomainEvent event) {
@@ -90,16 +111,14 @@ public class OrderProjection implements Projection<OrderProjectionModel> {
 
     @Transactional
     protected void handle(OrderCreatedEvent event) {
-        var model = new OrderProjectionModel();
-        model.setId(event.getAggregateId());
-        model.setCustomerId(event.getCustomerId());
-        model.setStatus(OrderStatus.DRAFT);
-        model.setCreatedAt(event.getTimestamp() != null ? event.getTimestamp() : Instant.now());
-        model.setUpdatedAt(model.getCreatedAt());
-        model.setVersion(event.getVersion());
+        var model = createModel(event);
 
-        var entity = OrderProjectionEntity.fromModel(model);
-        repository.save(entity);
+        // Resuming from a checkpoint can replay events the live path already applied;
+        // the version-guarded upsert turns those into a no-op
+        if (!repository.upsert(model)) {
+            log.debug("Skipping already applied OrderCreatedEvent: {}", event.getAggregateId());
+            return;
+        }
         updateCache(model);
 
         log.debug("Order projection created: {}", event.getAggregateId());
@@ -112,14 +131,126 @@ public class OrderProjection implements Projection<OrderProjectionModel> {
             log.warn("Order not found for OrderItemAddedEvent: {}", event.getAggregateId());
             return;
         }
+        if (model.getVersion() >= event.getVersion()) {
+            log.debug("Skipping already applied OrderItemAddedEvent: {} version {}",
+                event.getAggregateId(), event.getVersion());
+            return;
+        }
+
+        // Fold onto a copy, so the cached model only changes once the write has gone through
+        var updated = copyOf(model);
+        var item = addItem(updated, event);
+
+        if (!repository.appendItem(updated, item)) {
+            // A concurrent writer got there first; re-read it on the next lookup
+            evict(model);
+            log.debug("Skipping already applied OrderItemAddedEvent: {} version {}",
+                event.getAggregateId(), event.getVersion());
+            return;
+        }
+        if (model.getVersion() == event.getVersion() - 1) {
+            updateCache(updated);
+        } else {
+            // The stored order moved by the item alone, but the cached copy may have missed other
+            // writes in between; re-read it on the next lookup rather than trust the fold
+            evict(model);
+        }
+
+        log.debug("Order item added to projection: {} - {}", 
+            event.getAggregateId(), event.getProductName());
+    }
+
+    /**
+     * Bulk path used while rebuilding: folds the whole batch into in-memory models first, then
+     * writes every touched order once and only the item rows added by this batch, with JDBC
+     * batching in a single transaction. During a shadow rebuild the writes go to the shadow tables.
+     */
+    @Override
+    @Transactional
+    public void handleBatch(List<DomainEvent> events) {
+        try {
+            var ids = events.stream()
+                .map(DomainEvent::getAggregateId)
+                .collect(Collectors.toSet());
+            var tables = rebuildingInShadow
+                ? OrderProjectionRepository.Tables.SHADOW
+                : OrderProjectionRepository.Tables.LIVE;
+            var models = repository.findOrdersByIds(tables, ids);
+            // The versions the fold starts from; an order is only written if nobody moved it since
+            var storedVersions = models.values().stream()
+                .collect(Collectors.toMap(OrderProjectionModel::getId, OrderProjectionModel::getVersion));
+            var newItems = new HashMap<String, List<OrderProjectionModel.OrderItemProjection>>();
+            var touched = new LinkedHashSet<String>();
+
+            for (var event : events) {
+                var model = models.get(event.getAggregateId());
+                switch (event) {
+                    case OrderCreatedEvent e -> {
+                        if (model != null && model.getVersion() >= e.getVersion()) {
+                            continue;
+                        }
+                        models.put(e.getAggregateId(), createModel(e));
+                        newItems.remove(e.getAggregateId());
+                        touched.add(e.getAggregateId());
+                    }
+                    case OrderItemAddedEvent e -> {
+                        if (model == null) {
+                            log.warn("Order not found for OrderItemAddedEvent: {}", e.getAggregateId());
+                            continue;
+                        }
+                        if (model.getVersion() >= e.getVersion()) {
+                            continue;
+                        }
+                        newItems.computeIfAbsent(e.getAggregateId(), k -> new ArrayList<>())
+                            .add(addItem(model, e));
+                        touched.add(e.getAggregateId());
+                    }
+                    default -> log.debug("Ignoring event type: {}", event.getClass().getSimpleName());
+                }
+            }
+
+            var changed = touched.stream()
+                .map(models::get)
+                .toList();
+            var written = repository.bulkUpsert(tables, changed, storedVersions, newItems);
+            if (!rebuildingInShadow) {
+                invalidateCache();
+            }
+
+            log.debug("Bulk applied {} events to {} order projections", events.size(), written.size());
+        } catch (Exception e) {
+            log.error("Error bulk handling {} events", events.size(), e);
+            throw new ProjectionRebuildException("Failed to bulk handle events", e);
+        }
+    }
+
+    private static OrderProjectionModel createModel(OrderCreatedEvent event) {
+        var model = new OrderProjectionModel();
+        model.setId(event.getAggregateId());
+        model.setCustomerId(event.getCustomerId());
+        model.setStatus(OrderStatus.DRAFT);
+        model.setCreatedAt(event.getTimestamp() != null ? event.getTimestamp() : Instant.now());
+        model.setUpdatedAt(model.getCreatedAt());
+        model.setVersion(event.getVersion());
+        return model;
+    }
 
+    private static OrderProjectionModel copyOf(OrderProjectionModel model) {
+        return new OrderProjectionModel(model.getId(), model.getCustomerId(), model.getStatus(),
+            new ArrayList<>(model.getItems()), model.getTotalAmount(), model.getCreatedAt(), model.getUpdatedAt(),
+            model.getVersion());
+    }
+
+    private static OrderProjectionModel.OrderItemProjection addItem(OrderProjectionModel model,
+                                                                    OrderItemAddedEvent event) {
         var totalPrice = event.getPrice().multiply(BigDecimal.valueOf(event.getQuantity()));
         var item = new OrderProjectionModel.OrderItemProjection(
             event.getProductId(),
             event.getProductName(),
             event.getQuantity(),
             event.getPrice(),
-            totalPrice
+            totalPrice,
+            event.getVersion()
         );
 
         model.getItems().add(item);
@@ -130,12 +261,7 @@ public class OrderProjection implements Projection<OrderProjectionModel> {
         if (!model.getItems().isEmpty() && model.getStatus() == OrderStatus.DRAFT) {
             model.setStatus(OrderStatus.CONFIRMED);
         }
-
-        repository.save(OrderProjectionEntity.fromModel(model));
-        updateCache(model);
-
-        log.debug("Order item added to projection: {} - {}", 
-            event.getAggregateId(), event.getProductName());
+        return item;
     }
 
     @Override
@@ -272,6 +398,60 @@ public class OrderProjection implements Projection<OrderProjectionModel> {
         log.info("Order projection reset");
     }
 
+    /**
+     * Rebuilds into fresh shadow tables while reads keep being served from the live ones.
+     */
+    @Override
+    @Transactional
+    public void prepareRebuild() {
+        repository.createShadowTables();
+        rebuildingInShadow = true;
+        log.info("Order projection rebuild started in shadow tables");
+    }
+
+    @Override
+    @Transactional
+    public void completeRebuild() {
+        repository.swapInShadowTables();
+        rebuildingInShadow = false;
+        invalidateCache();
+        log.info("Order projection rebuild completed");
+    }
+
+    /**
+     * Goes back to writing the live tables, even if the shadow tables cannot be dropped; the next
+     * rebuild replaces them anyway.
+     */
+    @Override
+    @Transactional
+    public void abortRebuild() {
+        rebuildingInShadow = false;
+        invalidateCache();
+        repository.dropShadowTables();
+        log.info("Order projection rebuild aborted");
+    }
+
+    /**
+     * Every write is guarded by the order's version, so replayed events change nothing.
+     */
+    @Override
+    public boolean isIdempotent() {
+        return true;
+    }
+
+    @Override
+    public boolean rebuildsInShadow() {
+        return true;
+    }
+
+    /**
+     * Version 2 records on each item the version of the event that added it.
+     */
+    @Override
+    public int getProjectionVersion() {
+        return 2;
+    }
+
     @Override
     public String getProjectionName() {
         return "OrderProjection";
@@ -9,30 +9,47 @@ import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
 
 @Entity
-@Table(name = "order_projections")
+@Table(name = OrderProjectionEntity.TABLE,
+    indexes = @Index(name = OrderProjectionEntity.CUSTOMER_ID_INDEX, columnList = "customer_id"))
 @Getter
 @Setter
 public class OrderProjectionEntity {
+    // Named here once; the shadow table swap recreates the same schema under these names
+    static final String TABLE = "order_projections";
+    static final String CUSTOMER_ID_INDEX = "idx_order_projections_customer_id";
+
     @Id
+    @Column(name = "id")
     private String id;
     
+    @Column(name = "customer_id")
     private String customerId;
     
     @Enumerated(EnumType.STRING)
+    @Column(name = "status")
     private OrderStatus status;
     
     @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true)
-    @JoinColumn(name = "order_id")
+    @JoinColumn(name = "order_id", foreignKey = @ForeignKey(name = OrderItemProjectionEntity.ORDER_FOREIGN_KEY))
     private List<OrderItemProjectionEntity> items = new ArrayList<>();
     
+    @Column(name = "total_amount")
     private BigDecimal totalAmount = BigDecimal.ZERO;
+
+    @Column(name = "created_at")
     private Instant createdAt;
+
+    @Column(name = "updated_at")
     private Instant updatedAt;
+
+    @Column(name = "version")
     private long version;
     
     @Version
+    @Column(name = "optimistic_lock_version")
     private Long optimisticLockVersion;
     
     public OrderProjectionModel toModel() {
@@ -44,7 +61,9 @@ public class OrderProjectionEntity {
         model.setCreatedAt(createdAt);
         model.setUpdatedAt(updatedAt);
         model.setVersion(version);
-        model.setItems(items.stream().map(OrderItemProjectionEntity::toModel).toList());
+        model.setItems(items.stream()
+            .map(OrderItemProjectionEntity::toModel)
+            .collect(Collectors.toCollection(ArrayList::new)));
         return model;
     }
     
@@ -32,5 +32,6 @@ public class OrderProjectionModel {
         private int quantity;
         private BigDecimal price;
         private BigDecimal totalPrice;
+        private Long version;
     }
 }
\ No newline at end of file
@@ -1,14 +1,33 @@
 package ca.bazlur.eventsourcing.projections;
 
+import ca.bazlur.eventsourcing.domain.order.OrderStatus;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
 import io.quarkus.panache.common.Sort;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.persistence.PersistenceException;
 import jakarta.transaction.Transactional;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.jdbc.ReturningWork;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 
 /**
  * Repository for managing order projections using Panache.
@@ -18,31 +37,100 @@ import java.util.List;
 public class OrderProjectionRepository implements PanacheRepository<OrderProjectionEntity> {
     private static final Logger log = LoggerFactory.getLogger(OrderProjectionRepository.class);
 
-    @Transactional
-    public void save(OrderProjectionEntity order) {
-        if (order == null) {
-            throw new IllegalArgumentException("Order must not be null");
-        }
-        try {
-            if (order.getId() == null) {
-                persist(order);
-                log.debug("Created new order projection: {}", order.getId());
-            } else {
-                var existingOrder = find("id", order.getId()).firstResultOptional();
-                if (existingOrder.isPresent()) {
-                    var entity = existingOrder.get();
-                    order.setOptimisticLockVersion(entity.getOptimisticLockVersion());
-                    getEntityManager().detach(entity);
-                }
-                var merged = getEntityManager().merge(order);
-                getEntityManager().flush();
-                log.debug("Updated order projection: {} at version {}", 
-                    merged.getId(), merged.getVersion());
-            }
-        } catch (PersistenceException e) {
-            log.error("Failed to save order projection: {}", order.getId(), e);
-            throw new ProjectionPersistenceException(
-                "Failed to save order projection: " + order.getId(), e);
+    // Only moves a row forward: an older projection version leaves the stored one untouched
+    private static final String UPSERT_ORDER_SQL = """
+        INSERT INTO %s AS o
+            (id, customer_id, status, total_amount, created_at, updated_at, version, optimistic_lock_version)
+        VALUES (?, ?, ?, ?, ?, ?, ?, 0)
+        ON CONFLICT (id) DO UPDATE SET
+            customer_id = EXCLUDED.customer_id,
+            status = EXCLUDED.status,
+            total_amount = EXCLUDED.total_amount,
+            created_at = EXCLUDED.created_at,
+            updated_at = EXCLUDED.updated_at,
+            version = EXCLUDED.version,
+            optimistic_lock_version = o.optimistic_lock_version + 1
+        WHERE o.version < EXCLUDED.version
+        """;
+
+    // Each native insert takes a whole pooled block of ids, which keeps it clear of Hibernate's blocks
+    private static final String INSERT_ITEM_SQL = """
+        INSERT INTO %s (id, product_id, product_name, quantity, price, total_price, version, order_id)
+        VALUES (nextval('order_item_projections_id_seq'), ?, ?, ?, ?, ?, ?, ?)
+        """;
+
+    // Adds an item and moves the order's totals by it in one statement. The item is only inserted
+    // while the order is below the item's version, and (order_id, version) is unique, so an event
+    // applied twice, even concurrently, adds one item. The totals grow by the inserted item rather
+    // than being set from a fold, and the version only moves forward, so events of other types in
+    // between, which this projection never sees, do not hold the order back.
+    private static final String APPEND_ITEM_SQL = """
+        WITH item AS (
+            INSERT INTO %2$s (id, product_id, product_name, quantity, price, total_price, version, order_id)
+            SELECT nextval('order_item_projections_id_seq'), ?, ?, ?, ?, ?, ?, o.id
+            FROM %1$s o
+            WHERE o.id = ? AND o.version < ?
+            ON CONFLICT (order_id, version) DO NOTHING
+            RETURNING order_id, total_price
+        )
+        UPDATE %1$s AS o SET
+            status = CASE WHEN o.status = 'DRAFT' THEN 'CONFIRMED' ELSE o.status END,
+            total_amount = o.total_amount + item.total_price,
+            updated_at = GREATEST(o.updated_at, ?),
+            version = GREATEST(o.version, ?),
+            optimistic_lock_version = o.optimistic_lock_version + 1
+        FROM item
+        WHERE o.id = item.order_id
+        """;
+
+    // Set-based writes of a folded batch, one row per order from the unnested arrays. An order only
+    // moves on from the version the fold started from, or is only created if it still does not
+    // exist, and RETURNING reports which orders were written.
+    private static final String BULK_UPDATE_ORDERS_SQL = """
+        UPDATE %s AS o SET
+            customer_id = t.customer_id,
+            status = t.status,
+            total_amount = CAST(t.total_amount AS numeric),
+            created_at = CAST(t.created_at AS timestamptz),
+            updated_at = CAST(t.updated_at AS timestamptz),
+            version = t.version,
+            optimistic_lock_version = o.optimistic_lock_version + 1
+        FROM unnest(?, ?, ?, ?, ?, ?, ?, ?)
+            AS t(id, customer_id, status, total_amount, created_at, updated_at, version, stored_version)
+        WHERE o.id = t.id AND o.version = t.stored_version
+        RETURNING o.id
+        """;
+
+    private static final String BULK_INSERT_ORDERS_SQL = """
+        INSERT INTO %s
+            (id, customer_id, status, total_amount, created_at, updated_at, version, optimistic_lock_version)
+        SELECT t.id, t.customer_id, t.status, CAST(t.total_amount AS numeric), CAST(t.created_at AS timestamptz),
+               CAST(t.updated_at AS timestamptz), t.version, 0
+        FROM unnest(?, ?, ?, ?, ?, ?, ?, ?)
+            AS t(id, customer_id, status, total_amount, created_at, updated_at, version, stored_version)
+        ON CONFLICT (id) DO NOTHING
+        RETURNING id
+        """;
+
+    private static final String SELECT_ORDERS_SQL = """
+        SELECT id, customer_id, status, total_amount, created_at, updated_at, version
+        FROM %s WHERE id = ANY (?)
+        """;
+
+    /**
+     * The physical tables an order projection is written to: the live tables serve reads, the
+     * shadow tables receive a rebuild until {@link #swapInShadowTables()} replaces the live ones.
+     */
+    public enum Tables {
+        LIVE(OrderProjectionEntity.TABLE, OrderItemProjectionEntity.TABLE),
+        SHADOW(shadow(OrderProjectionEntity.TABLE), shadow(OrderItemProjectionEntity.TABLE));
+
+        private final String orders;
+        private final String items;
+
+        Tables(String orders, String items) {
+            this.orders = orders;
+            this.items = items;
         }
     }
 
@@ -90,6 +178,405 @@ public class OrderProjectionRepository implements PanacheRepository<OrderProject
         }
     }
 
+    /**
+     * Writes an order row with a single upsert guarded by the projection version, instead of
+     * reading, merging and flushing the entity graph. When the stored row is already at the same
+     * or a newer version the upsert changes nothing, so a replayed event costs one statement.
+     * Item rows are not touched; they are added with {@link #appendItem}.
+     *
+     * @param order the order projection in its new state
+     * @return true if the order was written, false if the stored one was already up to date
+     * @throws ProjectionPersistenceException if there's a database error
+     */
+    @Transactional
+    public boolean upsert(OrderProjectionModel order) {
+        if (order == null || order.getId() == null) {
+            throw new IllegalArgumentException("Order and its ID must not be null");
+        }
+        try {
+            var applied = executeWrite(order.getId(), connection -> {
+                try (var statement = connection.prepareStatement(UPSERT_ORDER_SQL.formatted(Tables.LIVE.orders))) {
+                    bindOrder(statement, order);
+                    return statement.executeUpdate() > 0;
+                }
+            });
+            logWrite(order, applied);
+            return applied;
+        } catch (PersistenceException e) {
+            log.error("Failed to upsert order projection: {}", order.getId(), e);
+            throw new ProjectionPersistenceException("Failed to upsert order projection: " + order.getId(), e);
+        }
+    }
+
+    /**
+     * Adds one item to an order: only the new item row is inserted and the order's totals are
+     * moved by it, so the existing items are never rewritten. See {@link #APPEND_ITEM_SQL}.
+     *
+     * @param order the order projection with the item already applied
+     * @param item  the item to add, carrying the version of the event that added it
+     * @return true if the item was added, false if the stored order was already at or past its version
+     * @throws ProjectionPersistenceException if there's a database error
+     */
+    @Transactional
+    public boolean appendItem(OrderProjectionModel order, OrderProjectionModel.OrderItemProjection item) {
+        if (order == null || order.getId() == null || item == null || item.getVersion() == null) {
+            throw new IllegalArgumentException("Order, its ID, item and item version must not be null");
+        }
+        try {
+            var applied = executeWrite(order.getId(), connection -> {
+                try (var statement = connection.prepareStatement(
+                        APPEND_ITEM_SQL.formatted(Tables.LIVE.orders, Tables.LIVE.items))) {
+                    statement.setString(1, item.getProductId());
+                    statement.setString(2, item.getProductName());
+                    statement.setInt(3, item.getQuantity());
+                    statement.setBigDecimal(4, item.getPrice());
+                    statement.setBigDecimal(5, item.getTotalPrice());
+                    statement.setLong(6, item.getVersion());
+                    statement.setString(7, order.getId());
+                    statement.setLong(8, item.getVersion());
+                    statement.setObject(9, toTimestamp(order.getUpdatedAt()));
+                    statement.setLong(10, item.getVersion());
+                    return statement.executeUpdate() > 0;
+                }
+            });
+            logWrite(order, applied);
+            return applied;
+        } catch (PersistenceException e) {
+            log.error("Failed to add item to order projection: {}", order.getId(), e);
+            throw new ProjectionPersistenceException("Failed to add item to order projection: " + order.getId(), e);
+        }
+    }
+
+    private boolean executeWrite(String orderId, ReturningWork<Boolean> work) {
+        var entityManager = getEntityManager();
+        entityManager.flush();
+        var applied = entityManager.unwrap(Session.class).doReturningWork(work);
+        if (applied) {
+            evictOrders(List.of(orderId));
+        }
+        return applied;
+    }
+
+    private static void logWrite(OrderProjectionModel order, boolean applied) {
+        if (applied) {
+            log.debug("Wrote order projection: {} at version {}", order.getId(), order.getVersion());
+        } else {
+            log.debug("Order projection {} already at or past version {}", order.getId(), order.getVersion());
+        }
+    }
+
+    /**
+     * Loads the order rows for the given IDs without their items. Meant for folding a batch of
+     * events, where only the order totals and versions matter and items are only ever appended.
+     *
+     * @param tables the tables to read from
+     * @param ids    the IDs of the order projections
+     * @return the order projections that exist, keyed by ID
+     * @throws ProjectionPersistenceException if there's a database error
+     */
+    public Map<String, OrderProjectionModel> findOrdersByIds(Tables tables, Collection<String> ids) {
+        if (tables == null || ids == null) {
+            throw new IllegalArgumentException("Tables and IDs must not be null");
+        }
+        var models = new LinkedHashMap<String, OrderProjectionModel>();
+        if (ids.isEmpty()) {
+            return models;
+        }
+        try {
+            getEntityManager().unwrap(Session.class).doWork(connection -> {
+                try (var statement = connection.prepareStatement(SELECT_ORDERS_SQL.formatted(tables.orders))) {
+                    statement.setArray(1, connection.createArrayOf("varchar", ids.toArray()));
+                    try (var rows = statement.executeQuery()) {
+                        while (rows.next()) {
+                            var model = readOrder(rows);
+                            models.put(model.getId(), model);
+                        }
+                    }
+                }
+            });
+            return models;
+        } catch (PersistenceException e) {
+            log.error("Failed to find {} order projections in {}", ids.size(), tables.orders, e);
+            throw new ProjectionPersistenceException("Failed to find order projections", e);
+        }
+    }
+
+    /**
+     * Writes a folded batch of order projections with two set-based statements, one for the orders
+     * that existed when the batch was folded and one for new orders, and one JDBC batch inserting
+     * the newly added items. An order is only written if it is still at the version the fold started
+     * from, or still absent for a new one, and items are only inserted for the orders written.
+     * An order a concurrent writer has moved in the meantime is left to that writer, and none of
+     * its items are inserted twice. Existing item rows are left untouched.
+     *
+     * @param tables         the tables to write to
+     * @param orders         the touched order projections in their final state for the batch
+     * @param storedVersions the versions the orders were at when the batch was folded, keyed by
+     *                       order ID; orders without one were new
+     * @param newItems       the items added by the batch, keyed by order ID
+     * @return the IDs of the orders written
+     * @throws ProjectionPersistenceException if there's a database error
+     */
+    @Transactional
+    public Set<String> bulkUpsert(Tables tables, List<OrderProjectionModel> orders, Map<String, Long> storedVersions,
+                                  Map<String, List<OrderProjectionModel.OrderItemProjection>> newItems) {
+        if (tables == null || orders == null || storedVersions == null || newItems == null) {
+            throw new IllegalArgumentException("Tables, orders, versions and items must not be null");
+        }
+        if (orders.isEmpty()) {
+            return Set.of();
+        }
+        try {
+            var entityManager = getEntityManager();
+            entityManager.flush();
+            var written = entityManager.unwrap(Session.class).doReturningWork(connection -> {
+                var writtenIds = new HashSet<String>();
+                var existing = orders.stream()
+                    .filter(order -> storedVersions.containsKey(order.getId()))
+                    .toList();
+                var created = orders.stream()
+                    .filter(order -> !storedVersions.containsKey(order.getId()))
+                    .toList();
+                writeOrders(connection, BULK_UPDATE_ORDERS_SQL.formatted(tables.orders), existing, storedVersions,
+                    writtenIds);
+                writeOrders(connection, BULK_INSERT_ORDERS_SQL.formatted(tables.orders), created, storedVersions,
+                    writtenIds);
+
+                try (var statement = connection.prepareStatement(INSERT_ITEM_SQL.formatted(tables.items))) {
+                    for (var entry : newItems.entrySet()) {
+                        if (!writtenIds.contains(entry.getKey())) {
+                            continue;
+                        }
+                        for (var item : entry.getValue()) {
+                            bindItem(statement, entry.getKey(), item);
+                            statement.addBatch();
+                        }
+                    }
+                    statement.executeBatch();
+                }
+                return writtenIds;
+            });
+            if (tables == Tables.LIVE) {
+                evictOrders(written);
+            }
+            if (written.size() < orders.size()) {
+                log.debug("Skipped {} order projections moved by a concurrent writer in {}",
+                    orders.size() - written.size(), tables.orders);
+            }
+            log.debug("Bulk wrote {} order projections to {}", written.size(), tables.orders);
+            return written;
+        } catch (PersistenceException e) {
+            log.error("Failed to bulk write {} order projections", orders.size(), e);
+            throw new ProjectionPersistenceException("Failed to bulk write order projections", e);
+        }
+    }
+
+    private static void writeOrders(Connection connection, String sql, List<OrderProjectionModel> orders,
+                                    Map<String, Long> storedVersions, Set<String> writtenIds) throws SQLException {
+        if (orders.isEmpty()) {
+            return;
+        }
+        try (var statement = connection.prepareStatement(sql)) {
+            statement.setArray(1, textArray(connection, orders, OrderProjectionModel::getId));
+            statement.setArray(2, textArray(connection, orders, OrderProjectionModel::getCustomerId));
+            statement.setArray(3, textArray(connection, orders,
+                order -> order.getStatus() != null ? order.getStatus().name() : null));
+            statement.setArray(4, textArray(connection, orders,
+                order -> order.getTotalAmount() != null ? order.getTotalAmount().toPlainString() : null));
+            statement.setArray(5, textArray(connection, orders,
+                order -> order.getCreatedAt() != null ? order.getCreatedAt().toString() : null));
+            statement.setArray(6, textArray(connection, orders,
+                order -> order.getUpdatedAt() != null ? order.getUpdatedAt().toString() : null));
+            statement.setArray(7, connection.createArrayOf("bigint", orders.stream()
+                .map(OrderProjectionModel::getVersion)
+                .toArray(Long[]::new)));
+            statement.setArray(8, connection.createArrayOf("bigint", orders.stream()
+                .map(order -> storedVersions.get(order.getId()))
+                .toArray(Long[]::new)));
+            try (var rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    writtenIds.add(rows.getString(1));
+                }
+            }
+        }
+    }
+
+    private static Array textArray(Connection connection, List<OrderProjectionModel> orders,
+                                   Function<OrderProjectionModel, String> column) throws SQLException {
+        return connection.createArrayOf("text", orders.stream()
+            .map(column)
+            .toArray(String[]::new));
+    }
+
+    /**
+     * Detaches the managed copies of orders whose rows were written behind Hibernate's back, along
+     * with their items, leaving the rest of the caller's persistence context alone. Getting a
+     * reference returns the managed instance if there is one and never reads the row.
+     */
+    private void evictOrders(Collection<String> ids) {
+        var entityManager = getEntityManager();
+        for (var id : ids) {
+            entityManager.detach(entityManager.getReference(OrderProjectionEntity.class, id));
+        }
+    }
+
+    /**
+     * Detaches every managed order and item after their tables were replaced, leaving the rest of
+     * the caller's persistence context alone. The entries are copied before any is detached.
+     */
+    private void evictAllOrders() {
+        var session = getEntityManager().unwrap(SessionImplementor.class);
+        for (var entry : session.getPersistenceContextInternal().reentrantSafeEntityEntries()) {
+            var entity = entry.getKey();
+            if ((entity instanceof OrderProjectionEntity || entity instanceof OrderItemProjectionEntity)
+                    && session.contains(entity)) {
+                session.detach(entity);
+            }
+        }
+    }
+
+    /**
+     * Creates empty shadow tables for a rebuild, replacing any left behind by an earlier one.
+     * The tables are unlogged and carry only the primary key the upsert needs; the remaining
+     * indexes and constraints are built once in {@link #swapInShadowTables()}.
+     *
+     * @throws ProjectionPersistenceException if there's a database error
+     */
+    @Transactional
+    public void createShadowTables() {
+        executeStatements(
+            "DROP TABLE IF EXISTS " + Tables.SHADOW.items,
+            "DROP TABLE IF EXISTS " + Tables.SHADOW.orders,
+            "CREATE UNLOGGED TABLE %s (LIKE %s INCLUDING DEFAULTS, PRIMARY KEY (id))"
+                .formatted(Tables.SHADOW.orders, Tables.LIVE.orders),
+            "CREATE UNLOGGED TABLE %s (LIKE %s INCLUDING DEFAULTS)"
+                .formatted(Tables.SHADOW.items, Tables.LIVE.items));
+        log.info("Created shadow tables for order projection rebuild");
+    }
+
+    /**
+     * Finishes the shadow tables and swaps them in for the live ones. Indexes are built and the
+     * tables made durable before the live tables are locked, so readers are only blocked for the
+     * drop and renames at the very end. Indexes and constraints end up under the names the entity
+     * mapping gives them. Must run in the transaction that records the rebuild's checkpoint, so
+     * the swap and the position it reflects commit together.
+     *
+     * @throws ProjectionPersistenceException if there's a database error
+     */
+    @Transactional
+    public void swapInShadowTables() {
+        var live = Tables.LIVE;
+        var shadow = Tables.SHADOW;
+        getEntityManager().flush();
+        executeStatements(
+            "ALTER TABLE %s ADD CONSTRAINT %s PRIMARY KEY (id)".formatted(shadow.items, primaryKey(shadow.items)),
+            "ALTER TABLE %s ADD CONSTRAINT %s UNIQUE (order_id, version)"
+                .formatted(shadow.items, shadow(OrderItemProjectionEntity.ORDER_VERSION_KEY)),
+            "CREATE INDEX %s ON %s (order_id)".formatted(shadow(OrderItemProjectionEntity.ORDER_ID_INDEX), shadow.items),
+            "CREATE INDEX %s ON %s (customer_id)".formatted(shadow(OrderProjectionEntity.CUSTOMER_ID_INDEX), shadow.orders),
+            "ALTER TABLE %s SET LOGGED".formatted(shadow.orders),
+            "ALTER TABLE %s SET LOGGED".formatted(shadow.items),
+            "ALTER TABLE %s ADD CONSTRAINT %s FOREIGN KEY (order_id) REFERENCES %s (id)"
+                .formatted(shadow.items, OrderItemProjectionEntity.ORDER_FOREIGN_KEY, shadow.orders),
+            "LOCK TABLE %s, %s IN ACCESS EXCLUSIVE MODE".formatted(live.orders, live.items),
+            "DROP TABLE " + live.items,
+            "DROP TABLE " + live.orders,
+            "ALTER TABLE %s RENAME TO %s".formatted(shadow.orders, live.orders),
+            "ALTER TABLE %s RENAME TO %s".formatted(shadow.items, live.items),
+            "ALTER TABLE %s RENAME CONSTRAINT %s TO %s"
+                .formatted(live.orders, primaryKey(shadow.orders), primaryKey(live.orders)),
+            "ALTER TABLE %s RENAME CONSTRAINT %s TO %s"
+                .formatted(live.items, primaryKey(shadow.items), primaryKey(live.items)),
+            "ALTER TABLE %s RENAME CONSTRAINT %s TO %s"
+                .formatted(live.items, shadow(OrderItemProjectionEntity.ORDER_VERSION_KEY),
+                    OrderItemProjectionEntity.ORDER_VERSION_KEY),
+            "ALTER INDEX %s RENAME TO %s"
+                .formatted(shadow(OrderItemProjectionEntity.ORDER_ID_INDEX), OrderItemProjectionEntity.ORDER_ID_INDEX),
+            "ALTER INDEX %s RENAME TO %s"
+                .formatted(shadow(OrderProjectionEntity.CUSTOMER_ID_INDEX), OrderProjectionEntity.CUSTOMER_ID_INDEX));
+        evictAllOrders();
+        log.info("Swapped rebuilt order projection tables in");
+    }
+
+    /**
+     * Drops the shadow tables of a rebuild that is given up, leaving the live tables as they are.
+     *
+     * @throws ProjectionPersistenceException if there's a database error
+     */
+    @Transactional
+    public void dropShadowTables() {
+        executeStatements(
+            "DROP TABLE IF EXISTS " + Tables.SHADOW.items,
+            "DROP TABLE IF EXISTS " + Tables.SHADOW.orders);
+        log.info("Dropped shadow tables of abandoned order projection rebuild");
+    }
+
+    private static String shadow(String name) {
+        return name + "_shadow";
+    }
+
+    // Postgres' default name for a table's primary key, which is what the mapping leaves it with
+    private static String primaryKey(String table) {
+        return table + "_pkey";
+    }
+
+    private void executeStatements(String... statements) {
+        try {
+            getEntityManager().unwrap(Session.class).doWork(connection -> {
+                try (var statement = connection.createStatement()) {
+                    for (var sql : statements) {
+                        statement.execute(sql);
+                    }
+                }
+            });
+        } catch (PersistenceException e) {
+            log.error("Failed to update order projection tables", e);
+            throw new ProjectionPersistenceException("Failed to update order projection tables", e);
+        }
+    }
+
+    private static OrderProjectionModel readOrder(ResultSet rows) throws SQLException {
+        var model = new OrderProjectionModel();
+        model.setId(rows.getString("id"));
+        model.setCustomerId(rows.getString("customer_id"));
+        var status = rows.getString("status");
+        model.setStatus(status != null ? OrderStatus.valueOf(status) : null);
+        model.setTotalAmount(rows.getBigDecimal("total_amount"));
+        model.setCreatedAt(toInstant(rows.getObject("created_at", OffsetDateTime.class)));
+        model.setUpdatedAt(toInstant(rows.getObject("updated_at", OffsetDateTime.class)));
+        model.setVersion(rows.getLong("version"));
+        return model;
+    }
+
+    private static Instant toInstant(OffsetDateTime timestamp) {
+        return timestamp != null ? timestamp.toInstant() : null;
+    }
+
+    private static void bindOrder(PreparedStatement statement, OrderProjectionModel order) throws SQLException {
+        statement.setString(1, order.getId());
+        statement.setString(2, order.getCustomerId());
+        statement.setString(3, order.getStatus() != null ? order.getStatus().name() : null);
+        statement.setBigDecimal(4, order.getTotalAmount());
+        statement.setObject(5, toTimestamp(order.getCreatedAt()));
+        statement.setObject(6, toTimestamp(order.getUpdatedAt()));
+        statement.setLong(7, order.getVersion());
+    }
+
+    private static void bindItem(PreparedStatement statement, String orderId,
+                                 OrderProjectionModel.OrderItemProjection item) throws SQLException {
+        statement.setString(1, item.getProductId());
+        statement.setString(2, item.getProductName());
+        statement.setInt(3, item.getQuantity());
+        statement.setBigDecimal(4, item.getPrice());
+        statement.setBigDecimal(5, item.getTotalPrice());
+        statement.setObject(6, item.getVersion(), Types.BIGINT);
+        statement.setString(7, orderId);
+    }
+
+    private static OffsetDateTime toTimestamp(Instant instant) {
+        return instant != null ? instant.atOffset(ZoneOffset.UTC) : null;
+    }
+
     public boolean exists(String id) {
         if (id == null || id.isBlank()) {
             throw new IllegalArgumentException("ID must not be null or blank");
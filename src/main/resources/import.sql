@@ -2,7 +2,9 @@
 CREATE INDEX IF NOT EXISTS idx_events_stream_id ON events (stream_id);
 CREATE INDEX IF NOT EXISTS idx_events_timestamp ON events (timestamp);
 CREATE INDEX IF NOT EXISTS idx_events_correlation_id ON events (correlation_id);
-CREATE INDEX IF NOT EXISTS idx_events_event_type ON events (event_type);
+
+-- Type-filtered reads of the global log run one keyset read per event type, each walking this index in position order
+CREATE INDEX IF NOT EXISTS idx_events_event_type ON events (event_type, global_position);
 
 -- JSONB GIN index for event data queries
 CREATE INDEX IF NOT EXISTS idx_events_data_gin ON events USING GIN (event_data);
@@ -15,3 +17,5 @@ CREATE INDEX IF NOT EXISTS idx_snapshots_created_at ON snapshots (created_at);
 
 -- JSONB GIN index for snapshot state data queries
 CREATE INDEX IF NOT EXISTS idx_snapshots_state_data_gin ON snapshots USING GIN (state_data);
+
+-- Order projection indexes are declared on their entities
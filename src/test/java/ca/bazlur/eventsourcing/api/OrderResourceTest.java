@@ -5,6 +5,7 @@ import ca.bazlur.eventsourcing.api.dto.ErrorResponse;
 import ca.bazlur.eventsourcing.api.dto.OrderResponse;
 import ca.bazlur.eventsourcing.core.EventSchemaException;
 import ca.bazlur.eventsourcing.domain.order.OrderStatus;
+import ca.bazlur.eventsourcing.infrastructure.GroupCommitAppender;
 import ca.bazlur.eventsourcing.infrastructure.JpaEventStore;
 import ca.bazlur.eventsourcing.projections.OrderProjection;
 import ca.bazlur.eventsourcing.projections.OrderProjectionModel;
@@ -47,7 +48,8 @@ class OrderResourceTest {
 
     @BeforeEach
     void setUp() {
-        orderResource = new OrderResource(eventStore, orderProjection);
+        // Group commit disabled: every append goes straight to the event store
+        orderResource = new OrderResource(new GroupCommitAppender(eventStore, false, 64, 2, 10_000), orderProjection);
     }
 
     @Test
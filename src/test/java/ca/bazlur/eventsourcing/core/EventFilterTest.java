@@ -0,0 +1,46 @@
+package ca.bazlur.eventsourcing.core;
+
+import ca.bazlur.eventsourcing.domain.order.Order;
+import ca.bazlur.eventsourcing.domain.order.events.OrderCreatedEvent;
+import ca.bazlur.eventsourcing.domain.order.events.OrderItemAddedEvent;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventFilterTest {
+
+    @Test
+    void shouldCombineFiltersIntoOneThatSelectsWhatAnyOfThemSelects() {
+        // Given
+        var created = EventFilter.forEventTypes(OrderCreatedEvent.class);
+        var itemAdded = EventFilter.forEventTypes(OrderItemAddedEvent.class);
+        var orders = EventFilter.forAggregateTypes(Order.class);
+
+        // When/Then
+        assertEquals(Set.of(OrderCreatedEvent.class, OrderItemAddedEvent.class),
+            EventFilter.union(List.of(created, itemAdded)).eventTypes());
+        assertTrue(EventFilter.union(List.of(created, EventFilter.ALL)).isAll());
+        // One filter restricts only the aggregate type, the other only the event type
+        assertTrue(EventFilter.union(List.of(created, orders)).isAll());
+    }
+
+    @Test
+    void shouldMatchEnvelopesByEventAndAggregateType() {
+        // Given
+        var envelope = new EventEnvelope("event-1", "1", OrderCreatedEvent.class, "order-1", "Order", 1L, 1L,
+            Instant.now(), "correlation", null, new byte[0], payload -> {
+                throw new AssertionError("Filtering must not deserialize the event");
+            });
+
+        // When/Then
+        assertTrue(EventFilter.ALL.matches(envelope));
+        assertTrue(EventFilter.forEventTypes(OrderCreatedEvent.class).matches(envelope));
+        assertTrue(EventFilter.forAggregateTypes(Order.class).matches(envelope));
+        assertFalse(EventFilter.forEventTypes(OrderItemAddedEvent.class).matches(envelope));
+        assertFalse(envelope.isDecoded());
+    }
+}
@@ -0,0 +1,72 @@
+package ca.bazlur.eventsourcing.core;
+
+import ca.bazlur.eventsourcing.domain.order.events.OrderCreatedEvent;
+import ca.bazlur.eventsourcing.domain.order.events.OrderItemAddedEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@QuarkusTest
+class EventTypeIdResolverTest {
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Test
+    void shouldWriteCompactTypeIdInsteadOfClassName() throws Exception {
+        // Given
+        var event = new OrderCreatedEvent(UUID.randomUUID().toString(), 1L, "customer-1", "correlation", null);
+
+        // When
+        var json = objectMapper.writeValueAsString(event);
+        var restored = objectMapper.readValue(json, DomainEvent.class);
+
+        // Then
+        assertTrue(json.contains("\"@type\":\"1\""), json);
+        assertFalse(json.contains(OrderCreatedEvent.class.getName()), json);
+        assertInstanceOf(OrderCreatedEvent.class, restored);
+        assertEquals(event.getEventId(), restored.getEventId());
+    }
+
+    @Test
+    void shouldReadPayloadsWrittenWithClassNames() throws Exception {
+        // Given - a payload stored before type ids existed
+        var event = new OrderCreatedEvent(UUID.randomUUID().toString(), 1L, "customer-1", "correlation", null);
+        var legacyJson = objectMapper.writeValueAsString(event)
+            .replace("\"@type\":\"1\"", "\"@type\":\"" + OrderCreatedEvent.class.getName() + "\"");
+
+        // When
+        var restored = objectMapper.readValue(legacyJson, DomainEvent.class);
+
+        // Then
+        assertInstanceOf(OrderCreatedEvent.class, restored);
+        assertEquals(event.getEventId(), restored.getEventId());
+    }
+
+    @Test
+    void shouldRejectReusedTypeId() {
+        // Given
+        var schemaManager = new EventSchemaManager();
+        schemaManager.registerEventType(OrderCreatedEvent.class, 1);
+
+        // When/Then
+        assertThrows(EventSchemaException.class, () -> schemaManager.registerEventType(OrderItemAddedEvent.class, 1));
+        assertThrows(EventSchemaException.class, () -> schemaManager.registerEventType(OrderCreatedEvent.class, 3));
+        assertEquals(OrderCreatedEvent.class, schemaManager.findEventClass("1").orElseThrow());
+    }
+
+    @Test
+    void shouldFallBackToClassNamesWithoutSchemaManager() {
+        // Given - a mapper that was not customized with the schema manager
+        var resolver = new EventTypeIdResolver();
+        var event = new OrderCreatedEvent(UUID.randomUUID().toString(), 1L, "customer-1", "correlation", null);
+
+        // When/Then
+        assertEquals(OrderCreatedEvent.class.getName(), resolver.idFromValue(event));
+    }
+}
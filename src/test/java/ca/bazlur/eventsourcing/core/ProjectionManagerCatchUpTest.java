@@ -0,0 +1,335 @@
+package ca.bazlur.eventsourcing.core;
+
+import ca.bazlur.eventsourcing.domain.order.events.OrderCreatedEvent;
+import ca.bazlur.eventsourcing.domain.order.events.OrderItemAddedEvent;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.enterprise.inject.Instance;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@QuarkusTest
+class ProjectionManagerCatchUpTest {
+
+    private final EventStore eventStore = mock(EventStore.class);
+    private final InMemoryCheckpointStore checkpointStore = new InMemoryCheckpointStore();
+
+    @Test
+    void shouldFeedAllProjectionsFromOneReadStartingAtTheirCheckpoints() {
+        // Given - one projection is ahead of the other
+        var log = envelopes(1, 3);
+        stubLog(log);
+        var ahead = new RecordingProjection("ahead");
+        var behind = new RecordingProjection("behind");
+        checkpointStore.saveCheckpoint(new ProjectionCheckpoint("ahead", 1, 1L));
+        checkpointStore.saveCheckpoint(new ProjectionCheckpoint("behind", 1, 0L));
+        var manager = manager(1, ahead, behind);
+
+        // When - polled twice, with no new events in between
+        manager.processNewEvents().join();
+        manager.processNewEvents().join();
+
+        // Then - one read per poll serves both, and nothing is replayed on the second poll
+        verify(eventStore, times(1)).readAllEnvelopes(eq(0L), anyInt(), any());
+        verify(eventStore, times(1)).readAllEnvelopes(eq(3L), anyInt(), any());
+        assertEquals(List.of(2L, 3L), ahead.handledPositions());
+        assertEquals(List.of(1L, 2L, 3L), behind.handledPositions());
+        assertEquals(3L, checkpointStore.position("ahead"));
+        assertEquals(3L, checkpointStore.position("behind"));
+    }
+
+    @Test
+    void shouldDropFailingProjectionWhileOthersAdvance() {
+        // Given - a full batch followed by a short one
+        var log = envelopes(1, 502);
+        stubLog(log);
+        var healthy = new RecordingProjection("healthy");
+        var failing = new RecordingProjection("failing").failingAt(1L);
+        checkpointStore.saveCheckpoint(new ProjectionCheckpoint("healthy", 1, 0L));
+        checkpointStore.saveCheckpoint(new ProjectionCheckpoint("failing", 1, 0L));
+        var manager = manager(1, healthy, failing);
+
+        // When
+        var failure = assertThrows(CompletionException.class, () -> manager.processNewEvents().join());
+
+        // Then - the failing projection keeps its checkpoint and is not fed the second batch
+        assertInstanceOf(ProjectionRebuildException.class, failure.getCause());
+        assertTrue(failure.getCause().getMessage().contains("failing"));
+        assertEquals(502, healthy.handledPositions().size());
+        assertEquals(502L, checkpointStore.position("healthy"));
+        assertEquals(0L, checkpointStore.position("failing"));
+        assertEquals(1, failing.attempts());
+    }
+
+    @Test
+    void shouldRebuildIdempotentProjectionOnLanesKeepingEachStreamInOrder() {
+        // Given - four orders, each on its own lane, with their events interleaved in the log
+        stubLog(streamEnvelopes(4, 3));
+        var projection = new RecordingProjection("lanes").idempotent();
+        var manager = manager(4, projection);
+
+        // When
+        manager.rebuildAllProjections();
+
+        // Then
+        assertTrue(projection.batches() > 1);
+        for (var order = 1; order <= 4; order++) {
+            assertEquals(List.of(1L, 2L, 3L), projection.versionsOf("order-" + order));
+        }
+        assertEquals(12L, checkpointStore.position("lanes"));
+    }
+
+    @Test
+    void shouldNotMoveCheckpointWhenOneLaneFails() {
+        // Given - the first event of order-1 fails on its lane
+        stubLog(streamEnvelopes(4, 3));
+        var projection = new RecordingProjection("lanes").idempotent().failingAt(1L);
+        var manager = manager(4, projection);
+
+        // When
+        assertThrows(ProjectionRebuildException.class, manager::rebuildAllProjections);
+
+        // Then - the other lanes committed, but the batch as a whole is not recorded as applied
+        assertTrue(projection.aborted());
+        assertTrue(projection.versionsOf("order-1").isEmpty());
+        for (var order = 2; order <= 4; order++) {
+            assertEquals(List.of(1L, 2L, 3L), projection.versionsOf("order-" + order));
+        }
+        assertEquals(0L, checkpointStore.position("lanes"));
+    }
+
+    @Test
+    void shouldRebuildOtherProjectionsOneBatchPerTransaction() {
+        // Given - the default projection contract does not promise that replays are harmless
+        stubLog(streamEnvelopes(4, 3));
+        var projection = new RecordingProjection("single");
+        var manager = manager(4, projection);
+
+        // When
+        manager.rebuildAllProjections();
+
+        // Then
+        assertEquals(1, projection.batches());
+        assertEquals(12, projection.handledPositions().size());
+        assertEquals(12L, checkpointStore.position("single"));
+    }
+
+    @Test
+    void shouldMoveCheckpointPastRangeWithoutMatchingEvents() {
+        // Given - the filtered read finds nothing up to the watermark at 100
+        when(eventStore.readAllEnvelopes(anyLong(), anyInt(), any())).thenReturn(EnvelopeBatch.empty(100L));
+        var projection = new RecordingProjection("rare");
+        checkpointStore.saveCheckpoint(new ProjectionCheckpoint("rare", 1, 0L));
+        var manager = manager(1, projection);
+
+        // When
+        manager.processNewEvents().join();
+
+        // Then - the next pass starts after the range that was already looked at
+        assertEquals(100L, checkpointStore.position("rare"));
+        assertTrue(projection.handledPositions().isEmpty());
+    }
+
+    @Test
+    void shouldLeaveProjectionAloneOnceRebuildStartsDuringLivePass() {
+        // Given - a rebuild runs right after the live pass has read the checkpoint
+        stubLog(envelopes(1, 3));
+        var projection = new RecordingProjection("live");
+        checkpointStore.saveCheckpoint(new ProjectionCheckpoint("live", 1, 0L));
+        var manager = manager(1, projection);
+        checkpointStore.afterNextFind(manager::rebuildAllProjections);
+
+        // When
+        manager.processNewEvents().join();
+
+        // Then - only the rebuild applied the events, and the live pass did not touch its checkpoint
+        assertEquals(List.of(1L, 2L, 3L), projection.handledPositions());
+        assertEquals(3L, checkpointStore.position("live"));
+    }
+
+    private ProjectionManager manager(int rebuildLanes, Projection<?>... projections) {
+        @SuppressWarnings("unchecked")
+        Instance<Projection<?>> instance = mock(Instance.class);
+        when(instance.stream()).thenAnswer(invocation -> Stream.of(projections));
+        return new ProjectionManager(eventStore, checkpointStore, instance, rebuildLanes);
+    }
+
+    // Serves the log in keyset batches, like the store does
+    private void stubLog(List<EventEnvelope> log) {
+        when(eventStore.readAllEnvelopes(anyLong(), anyInt(), any())).thenAnswer(invocation -> {
+            long after = invocation.getArgument(0);
+            int limit = invocation.getArgument(1);
+            var envelopes = log.stream()
+                .filter(envelope -> envelope.getGlobalPosition() > after)
+                .limit(limit)
+                .toList();
+            return envelopes.isEmpty()
+                ? EnvelopeBatch.empty(after)
+                : new EnvelopeBatch(envelopes, envelopes.getLast().getGlobalPosition());
+        });
+    }
+
+    static List<EventEnvelope> envelopes(long fromPosition, long toPosition) {
+        var envelopes = new ArrayList<EventEnvelope>();
+        for (var position = fromPosition; position <= toPosition; position++) {
+            var event = new OrderCreatedEvent("order-" + position, 1L, "customer-1", "correlation", null);
+            envelopes.add(new EventEnvelope(event.getEventId(), "1", OrderCreatedEvent.class, event.getAggregateId(),
+                "Order", 1L, position, Instant.now(), "correlation", null, new byte[0], payload -> event));
+        }
+        return envelopes;
+    }
+
+    // The events of several orders, interleaved in the log: order-1 v1, order-2 v1, ..., order-1 v2, ...
+    static List<EventEnvelope> streamEnvelopes(int orders, int eventsPerOrder) {
+        var envelopes = new ArrayList<EventEnvelope>();
+        var position = 0L;
+        for (var version = 1L; version <= eventsPerOrder; version++) {
+            for (var order = 1; order <= orders; order++) {
+                var orderId = "order-" + order;
+                DomainEvent event = version == 1
+                    ? new OrderCreatedEvent(orderId, version, "customer-1", "correlation", null)
+                    : new OrderItemAddedEvent(orderId, version, "product-" + version, "Product " + version,
+                        1, BigDecimal.TEN, "correlation", null);
+                envelopes.add(new EventEnvelope(event.getEventId(), "1", event.getClass(), orderId, "Order",
+                    version, ++position, Instant.now(), "correlation", null, new byte[0], payload -> event));
+            }
+        }
+        return envelopes;
+    }
+
+    static final class InMemoryCheckpointStore implements ProjectionCheckpointStore {
+        private final Map<String, ProjectionCheckpoint> checkpoints = new ConcurrentHashMap<>();
+        private Runnable afterNextFind;
+
+        @Override
+        public Optional<ProjectionCheckpoint> findCheckpoint(String projectionName) {
+            var checkpoint = Optional.ofNullable(checkpoints.get(projectionName));
+            var action = afterNextFind;
+            afterNextFind = null;
+            if (action != null) {
+                action.run();
+            }
+            return checkpoint;
+        }
+
+        // Runs once, after the next checkpoint is read and before it is returned
+        void afterNextFind(Runnable action) {
+            this.afterNextFind = action;
+        }
+
+        @Override
+        public void saveCheckpoint(ProjectionCheckpoint checkpoint) {
+            checkpoints.put(checkpoint.projectionName(), checkpoint);
+        }
+
+        long position(String projectionName) {
+            return checkpoints.get(projectionName).position();
+        }
+    }
+
+    static class RecordingProjection implements Projection<String> {
+        private final String name;
+        private final List<DomainEvent> handled = new ArrayList<>();
+        private long failAtPosition = -1;
+        private boolean idempotent;
+        private boolean aborted;
+        private int attempts;
+        private int batches;
+
+        RecordingProjection(String name) {
+            this.name = name;
+        }
+
+        RecordingProjection failingAt(long position) {
+            this.failAtPosition = position;
+            return this;
+        }
+
+        RecordingProjection idempotent() {
+            this.idempotent = true;
+            return this;
+        }
+
+        @Override
+        public synchronized void handle(DomainEvent event) {
+            attempts++;
+            if (event.getGlobalPosition() == failAtPosition) {
+                throw new IllegalStateException("Cannot apply event at position " + failAtPosition);
+            }
+            handled.add(event);
+        }
+
+        @Override
+        public void handleBatch(List<DomainEvent> events) {
+            synchronized (this) {
+                batches++;
+            }
+            Projection.super.handleBatch(events);
+        }
+
+        @Override
+        public synchronized void abortRebuild() {
+            aborted = true;
+        }
+
+        @Override
+        public boolean isIdempotent() {
+            return idempotent;
+        }
+
+        @Override
+        public String getById(String id) {
+            return null;
+        }
+
+        @Override
+        public synchronized void reset() {
+            handled.clear();
+        }
+
+        @Override
+        public String getProjectionName() {
+            return name;
+        }
+
+        synchronized List<Long> handledPositions() {
+            return handled.stream()
+                .map(DomainEvent::getGlobalPosition)
+                .toList();
+        }
+
+        synchronized List<Long> versionsOf(String aggregateId) {
+            return handled.stream()
+                .filter(event -> event.getAggregateId().equals(aggregateId))
+                .map(DomainEvent::getVersion)
+                .toList();
+        }
+
+        synchronized int batches() {
+            return batches;
+        }
+
+        synchronized boolean aborted() {
+            return aborted;
+        }
+
+        synchronized int attempts() {
+            return attempts;
+        }
+    }
+}
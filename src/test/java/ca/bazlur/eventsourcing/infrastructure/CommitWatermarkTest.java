@@ -0,0 +1,104 @@
+package ca.bazlur.eventsourcing.infrastructure;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+class CommitWatermarkTest {
+
+    private final EntityManager entityManager = mock(EntityManager.class);
+    private final CommitWatermark commitWatermark = new CommitWatermark(entityManager);
+
+    // What the mocked database shows: committed positions and the current snapshot bounds
+    private final List<Long> committed = new ArrayList<>();
+    private long headAtSeed;
+    private long xmin;
+    private long xmax;
+    private long scanAfter;
+
+    @BeforeEach
+    void setUp() {
+        var seedQuery = mock(Query.class);
+        when(entityManager.createNativeQuery(startsWith("SELECT COALESCE(MAX(global_position)"))).thenReturn(seedQuery);
+        when(seedQuery.getSingleResult()).thenAnswer(invocation -> new Object[]{headAtSeed, xmax});
+
+        var scanQuery = mock(Query.class);
+        when(entityManager.createNativeQuery(startsWith("SELECT global_position"))).thenReturn(scanQuery);
+        when(scanQuery.setParameter(eq("position"), any())).thenAnswer(invocation -> {
+            scanAfter = invocation.getArgument(1);
+            return scanQuery;
+        });
+        when(scanQuery.setParameter(eq("limit"), any())).thenReturn(scanQuery);
+        when(scanQuery.getResultList()).thenAnswer(invocation -> committed.stream()
+            .filter(position -> position > scanAfter)
+            .sorted()
+            .toList());
+
+        var xminQuery = mock(Query.class);
+        when(entityManager.createNativeQuery(startsWith("SELECT CAST(CAST(pg_snapshot_xmin"))).thenReturn(xminQuery);
+        when(xminQuery.getSingleResult()).thenAnswer(invocation -> xmin);
+
+        var xmaxQuery = mock(Query.class);
+        when(entityManager.createNativeQuery(startsWith("SELECT CAST(CAST(pg_snapshot_xmax"))).thenReturn(xmaxQuery);
+        when(xmaxQuery.getSingleResult()).thenAnswer(invocation -> xmax);
+    }
+
+    @Test
+    void shouldSeedFromHeadOnceOlderTransactionsFinish() {
+        // Given - the log is at 500 when the tracker starts, and a transaction older than the seed is running
+        committed.addAll(List.of(1L, 2L, 3L));
+        headAtSeed = 500L;
+        xmax = 10L;
+        xmin = 9L;
+
+        // When/Then - until it finishes, the log is scanned from the start
+        assertEquals(3L, commitWatermark.current());
+
+        xmin = 10L;
+        assertEquals(500L, commitWatermark.current());
+        verify(entityManager, times(1)).createNativeQuery(startsWith("SELECT COALESCE(MAX(global_position)"));
+    }
+
+    @Test
+    void shouldHoldWatermarkBelowInFlightHoleUntilItCommits() {
+        // Given - position 3 is reserved by a running transaction, so xmin is still below xmax
+        committed.addAll(List.of(1L, 2L, 4L));
+        xmin = 15L;
+        xmax = 20L;
+        assertEquals(2L, commitWatermark.current());
+
+        // When
+        var whileRunning = commitWatermark.current();
+        committed.add(3L);
+        var afterCommit = commitWatermark.current();
+
+        // Then
+        assertEquals(2L, whileRunning);
+        assertEquals(4L, afterCommit);
+    }
+
+    @Test
+    void shouldSkipHoleOnceItsWriterHasRolledBack() {
+        // Given - position 3 was reserved by a transaction running while xmax was 20
+        committed.addAll(List.of(1L, 2L, 4L));
+        xmin = 15L;
+        xmax = 20L;
+        assertEquals(2L, commitWatermark.current());
+
+        // When - every transaction that could have reserved it has finished, and it is still missing
+        xmin = 20L;
+
+        // Then
+        assertEquals(4L, commitWatermark.current());
+    }
+}
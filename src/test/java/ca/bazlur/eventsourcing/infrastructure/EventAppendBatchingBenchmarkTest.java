@@ -0,0 +1,68 @@
+package ca.bazlur.eventsourcing.infrastructure;
+
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.UUID;
+
+import static ca.bazlur.eventsourcing.test.BenchmarkFixture.orderEvents;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Measures how many statements a multi-event append sends. With pooled sequence ids the inserts
+ * of one append go out as a single JDBC batch, so the statement count does not grow with the
+ * number of events.
+ */
+@QuarkusTest
+class EventAppendBatchingBenchmarkTest {
+    private static final Logger log = LoggerFactory.getLogger(EventAppendBatchingBenchmarkTest.class);
+    private static final int LARGE_APPEND = 40;
+
+    @Inject
+    JpaEventStore eventStore;
+
+    @Inject
+    EntityManager entityManager;
+
+    @Test
+    void shouldSendMultiEventAppendAsSingleInsertBatch() {
+        // Arrange
+        var statistics = entityManager.getEntityManagerFactory()
+            .unwrap(SessionFactory.class)
+            .getStatistics();
+        // Warm up so the first append does not pay for class loading and connection setup
+        append(statistics, 1);
+
+        // Act
+        var singleEventStatements = append(statistics, 1);
+        var start = System.nanoTime();
+        var largeAppendStatements = append(statistics, LARGE_APPEND);
+        var elapsedMicros = (System.nanoTime() - start) / 1_000;
+
+        log.info("Appended {} events with {} statements in {} us ({} us per event); a single event took {} statements",
+            LARGE_APPEND, largeAppendStatements, elapsedMicros, elapsedMicros / LARGE_APPEND, singleEventStatements);
+
+        // Assert - At most one extra statement, for fetching the next block of ids
+        assertTrue(largeAppendStatements <= singleEventStatements + 1,
+            "Expected a " + LARGE_APPEND + "-event append to be batched, but it took "
+                + largeAppendStatements + " statements against " + singleEventStatements + " for one event");
+    }
+
+    private long append(Statistics statistics, int eventCount) {
+        var streamId = UUID.randomUUID().toString();
+        var events = orderEvents(streamId, eventCount);
+
+        statistics.clear();
+        eventStore.appendEvents(streamId, events, 0L);
+        var statements = statistics.getPrepareStatementCount();
+
+        assertEquals(eventCount, statistics.getEntityInsertCount());
+        return statements;
+    }
+}
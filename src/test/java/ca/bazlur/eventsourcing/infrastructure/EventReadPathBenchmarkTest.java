@@ -0,0 +1,132 @@
+package ca.bazlur.eventsourcing.infrastructure;
+
+import ca.bazlur.eventsourcing.core.DomainEvent;
+import ca.bazlur.eventsourcing.infrastructure.serialization.JsonEventSerializer;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static ca.bazlur.eventsourcing.test.BenchmarkFixture.orderEvents;
+import static ca.bazlur.eventsourcing.test.BenchmarkFixture.time;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares reading events as managed entities, as the store used to, with the column-row path it
+ * uses now, for a single long stream and for a scan of the global log. The row path must not load
+ * a single entity.
+ */
+@QuarkusTest
+class EventReadPathBenchmarkTest {
+    private static final Logger log = LoggerFactory.getLogger(EventReadPathBenchmarkTest.class);
+    private static final int EVENTS = 2_000;
+
+    @Inject
+    JpaEventStore eventStore;
+
+    @Inject
+    JsonEventSerializer jsonSerializer;
+
+    @Inject
+    EntityManager entityManager;
+
+    private Statistics statistics;
+    private String streamId;
+    private long startPosition;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManagerFactory()
+            .unwrap(SessionFactory.class)
+            .getStatistics();
+        startPosition = eventStore.getCommittedPosition();
+        streamId = UUID.randomUUID().toString();
+        eventStore.appendEvents(streamId, orderEvents(streamId, EVENTS), 0L);
+    }
+
+    @Test
+    void shouldLoadSingleStreamWithoutManagingEntities() {
+        // Arrange
+        Supplier<List<DomainEvent>> entityPath = () -> entityManager.createQuery(
+                "SELECT e FROM EventEntity e WHERE e.streamId = :streamId ORDER BY e.version ASC", EventEntity.class)
+            .setParameter("streamId", streamId)
+            .getResultList()
+            .stream()
+            .map(this::deserialize)
+            .toList();
+        Supplier<List<DomainEvent>> rowPath = () -> eventStore.getEvents(streamId);
+
+        // Act
+        var entities = measure(entityPath);
+        var rows = measure(rowPath);
+
+        log.info("Loaded a {} event stream: entities {} us ({} loaded), rows {} us ({} loaded)",
+            EVENTS, entities.nanos() / 1_000, entities.entitiesLoaded(), rows.nanos() / 1_000, rows.entitiesLoaded());
+
+        // Assert
+        assertEquals(EVENTS, entities.events());
+        assertEquals(EVENTS, rows.events());
+        assertEquals(EVENTS, entities.entitiesLoaded());
+        assertEquals(0, rows.entitiesLoaded());
+    }
+
+    @Test
+    void shouldScanGlobalLogWithoutManagingEntities() {
+        // Arrange - scan only what this test appended, so the count does not depend on other tests
+        Supplier<List<DomainEvent>> entityPath = () -> entityManager.createQuery(
+                "SELECT e FROM EventEntity e WHERE e.globalPosition > :afterPosition ORDER BY e.globalPosition ASC",
+                EventEntity.class)
+            .setParameter("afterPosition", startPosition)
+            .getResultList()
+            .stream()
+            .map(this::deserialize)
+            .toList();
+        Supplier<Long> rowPath = () -> {
+            try (var events = eventStore.streamAllEvents(startPosition)) {
+                return events.count();
+            }
+        };
+
+        // Act
+        var entities = measure(entityPath);
+        var rows = measure(rowPath);
+
+        log.info("Scanned {} events: entities {} us ({} loaded), rows {} us ({} loaded)",
+            EVENTS, entities.nanos() / 1_000, entities.entitiesLoaded(), rows.nanos() / 1_000, rows.entitiesLoaded());
+
+        // Assert
+        assertEquals(EVENTS, entities.events());
+        assertEquals(EVENTS, rows.events());
+        assertEquals(0, rows.entitiesLoaded());
+    }
+
+    private DomainEvent deserialize(EventEntity entity) {
+        var event = jsonSerializer.deserialize(entity.getEventData().getBytes(StandardCharsets.UTF_8));
+        event.setGlobalPosition(entity.getGlobalPosition());
+        return event;
+    }
+
+    // Entity loads are counted for the timed run only, since each run clears the statistics first
+    private Run measure(Supplier<?> read) {
+        var timed = time(() -> {
+            statistics.clear();
+            return QuarkusTransaction.requiringNew().call(read::get);
+        });
+        var events = timed.result() instanceof List<?> list ? list.size() : ((Number) timed.result()).longValue();
+        return new Run(events, timed.nanos(), statistics.getEntityLoadCount());
+    }
+
+    private record Run(long events, long nanos, long entitiesLoaded) {
+    }
+}
@@ -0,0 +1,154 @@
+package ca.bazlur.eventsourcing.infrastructure;
+
+import ca.bazlur.eventsourcing.core.AppendOutcomeUnknownException;
+import ca.bazlur.eventsourcing.core.DomainEvent;
+import ca.bazlur.eventsourcing.core.EventStoreException;
+import ca.bazlur.eventsourcing.core.OptimisticConcurrencyException;
+import ca.bazlur.eventsourcing.domain.order.events.OrderCreatedEvent;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@QuarkusTest
+class GroupCommitAppenderTest {
+
+    private final JpaEventStore eventStore = mock(JpaEventStore.class);
+
+    @Inject
+    TransactionSynchronizationRegistry transactionRegistry;
+
+    private GroupCommitAppender appender;
+
+    @AfterEach
+    void tearDown() {
+        if (appender != null) {
+            appender.stop();
+        }
+    }
+
+    @Test
+    void shouldCompleteEachCallerWithItsOwnResult() throws Exception {
+        // Given - a wide window so all three appends land in one batch
+        appender = startAppender(3, 500);
+        when(eventStore.appendEvents(eq("order-1"), any(), anyLong())).thenReturn(10L);
+        when(eventStore.appendEvents(eq("order-2"), any(), anyLong()))
+            .thenThrow(new OptimisticConcurrencyException("Expected version 0 but current version is 1"));
+        when(eventStore.appendEvents(eq("order-3"), any(), anyLong())).thenReturn(12L);
+
+        // When
+        var first = appender.appendAsync("order-1", events("order-1"), 0L);
+        var second = appender.appendAsync("order-2", events("order-2"), 0L);
+        var third = appender.appendAsync("order-3", events("order-3"), 0L);
+
+        // Then - the conflict only fails its own caller
+        assertEquals(10L, first.get(5, TimeUnit.SECONDS));
+        assertEquals(12L, third.get(5, TimeUnit.SECONDS));
+        var failure = assertThrows(CompletionException.class, second::join);
+        assertInstanceOf(OptimisticConcurrencyException.class, failure.getCause());
+    }
+
+    @Test
+    void shouldRetryAppendsAloneWhenBatchFails() throws Exception {
+        // Given - the first attempt at order-2 fails for a reason other than concurrency
+        appender = startAppender(2, 500);
+        when(eventStore.appendEvents(eq("order-1"), any(), anyLong())).thenReturn(10L);
+        when(eventStore.appendEvents(eq("order-2"), any(), anyLong()))
+            .thenThrow(new EventStoreException("Failed to append events to stream: order-2"))
+            .thenReturn(11L);
+
+        // When
+        var first = appender.appendAsync("order-1", events("order-1"), 0L);
+        var second = appender.appendAsync("order-2", events("order-2"), 0L);
+
+        // Then - both callers still get their result from the one-by-one retry
+        assertEquals(10L, first.get(5, TimeUnit.SECONDS));
+        assertEquals(11L, second.get(5, TimeUnit.SECONDS));
+        verify(eventStore, times(2)).appendEvents(eq("order-1"), any(), anyLong());
+    }
+
+    @Test
+    void shouldNotRetryAppendsWhenCommitFails() throws Exception {
+        // Given - both appends go through, then the commit of their shared transaction fails
+        appender = startAppender(2, 500);
+        when(eventStore.appendEvents(eq("order-1"), any(), anyLong())).thenReturn(10L);
+        when(eventStore.appendEvents(eq("order-2"), any(), anyLong())).thenAnswer(invocation -> {
+            transactionRegistry.registerInterposedSynchronization(new Synchronization() {
+                @Override
+                public void beforeCompletion() {
+                    throw new IllegalStateException("Connection lost while committing");
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                }
+            });
+            return 11L;
+        });
+
+        // When
+        var first = appender.appendAsync("order-1", events("order-1"), 0L);
+        var second = appender.appendAsync("order-2", events("order-2"), 0L);
+
+        // Then - the events may have been stored, so neither caller is retried
+        var firstFailure = assertThrows(CompletionException.class, first::join);
+        assertInstanceOf(AppendOutcomeUnknownException.class, firstFailure.getCause());
+        var secondFailure = assertThrows(CompletionException.class, second::join);
+        assertInstanceOf(AppendOutcomeUnknownException.class, secondFailure.getCause());
+        verify(eventStore, times(1)).appendEvents(eq("order-1"), any(), anyLong());
+        verify(eventStore, times(1)).appendEvents(eq("order-2"), any(), anyLong());
+    }
+
+    @Test
+    void shouldKeepAppendsToSameStreamInArrivalOrder() throws Exception {
+        // Given
+        appender = startAppender(8, 50);
+        when(eventStore.appendEvents(eq("order-1"), any(), anyLong())).thenReturn(1L, 2L);
+
+        // When
+        var first = appender.appendAsync("order-1", events("order-1"), 0L);
+        var second = appender.appendAsync("order-1", events("order-1"), 1L);
+
+        // Then - the second append waits for a later batch instead of racing the first
+        assertEquals(1L, first.get(5, TimeUnit.SECONDS));
+        assertEquals(2L, second.get(5, TimeUnit.SECONDS));
+        InOrder inOrder = inOrder(eventStore);
+        inOrder.verify(eventStore).appendEvents(eq("order-1"), any(), eq(0L));
+        inOrder.verify(eventStore).appendEvents(eq("order-1"), any(), eq(1L));
+    }
+
+    @Test
+    void shouldAppendDirectlyWhenGroupCommitIsDisabled() {
+        // Given
+        appender = new GroupCommitAppender(eventStore, false, 64, 2, 10_000);
+        appender.start();
+        when(eventStore.appendEvents(eq("order-1"), any(), eq(0L))).thenReturn(5L);
+
+        // When/Then
+        assertEquals(5L, appender.append("order-1", events("order-1"), 0L));
+        verify(eventStore).appendEvents(eq("order-1"), any(), eq(0L));
+    }
+
+    private GroupCommitAppender startAppender(int maxBatchSize, long windowMillis) {
+        var groupCommitAppender = new GroupCommitAppender(eventStore, true, maxBatchSize, windowMillis, 100);
+        groupCommitAppender.start();
+        return groupCommitAppender;
+    }
+
+    private static List<DomainEvent> events(String streamId) {
+        return List.of(new OrderCreatedEvent(streamId, 1L, "customer-1", "correlation", null));
+    }
+}
@@ -1,28 +1,47 @@
 package ca.bazlur.eventsourcing.infrastructure;
 
 import ca.bazlur.eventsourcing.core.DomainEvent;
+import ca.bazlur.eventsourcing.core.EventEnvelope;
+import ca.bazlur.eventsourcing.core.EventFilter;
 import ca.bazlur.eventsourcing.core.EventSchemaManager;
 import ca.bazlur.eventsourcing.core.EventStoreException;
+import ca.bazlur.eventsourcing.core.OptimisticConcurrencyException;
 import ca.bazlur.eventsourcing.domain.order.Order;
 import ca.bazlur.eventsourcing.domain.order.events.OrderCreatedEvent;
+import ca.bazlur.eventsourcing.domain.order.events.OrderItemAddedEvent;
+import ca.bazlur.eventsourcing.infrastructure.serialization.EventSerializerRegistry;
+import ca.bazlur.eventsourcing.infrastructure.serialization.JsonEventSerializer;
+import ca.bazlur.eventsourcing.infrastructure.serialization.PayloadCompressor;
 import ca.bazlur.eventsourcing.infrastructure.snapshot.SnapshotService;
+import ca.bazlur.eventsourcing.infrastructure.snapshot.SnapshotWriter;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import io.quarkus.test.junit.QuarkusTest;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
 import jakarta.persistence.TypedQuery;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import org.hibernate.jpa.HibernateHints;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
 import static org.mockito.Mockito.*;
 
 @QuarkusTest
@@ -41,17 +60,39 @@ class JpaEventStoreTest {
     private SnapshotService snapshotService;
 
     @Mock
-    private TypedQuery<Long> longQuery;
+    private TypedQuery<Object[]> rowQuery;
 
     @Mock
-    private TypedQuery<EventEntity> eventQuery;
+    private Query positionQuery;
 
+    @Mock
+    private Query streamHeadQuery;
+
+    @Mock
+    private Query snapshotQuery;
+
+    @Mock
+    private CommitWatermark commitWatermark;
+
+    @Mock
+    private SnapshotWriter snapshotWriter;
+
+    @Mock
+    private TransactionSynchronizationRegistry transactionRegistry;
+
+    private AggregateRegistry aggregateRegistry;
     private JpaEventStore eventStore;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        eventStore = new JpaEventStore(entityManager, objectMapper, schemaManager, snapshotService);
+        aggregateRegistry = new AggregateRegistry();
+        aggregateRegistry.register(Order.class, Order::new, List.of(OrderCreatedEvent.class));
+        eventStore = new JpaEventStore(entityManager,
+            new EventSerializerRegistry(List.of(new JsonEventSerializer(objectMapper)), JsonEventSerializer.FORMAT),
+            new PayloadCompressor(PayloadCompressor.NONE, 0, List.of(), new SimpleMeterRegistry()),
+            schemaManager, snapshotService, commitWatermark,
+            aggregateRegistry, snapshotWriter, streamCache(false), 2);
     }
 
     @Test
@@ -59,12 +100,10 @@ class JpaEventStoreTest {
         // Given
         var orderId = UUID.randomUUID().toString();
         var order = new Order(orderId);
-        var event = new OrderCreatedEvent(orderId, 1L, "customer-1", "correlation", "causation");
+        var snapshotRow = new Object[]{0, 5L, "{}", null, null, null, null, null};
 
-        when(snapshotService.restoreFromLatestSnapshot(orderId, Order.class))
-            .thenReturn(Optional.of(order));
-        when(entityManager.createQuery(anyString(), eq(EventEntity.class)))
-            .thenReturn(mock(jakarta.persistence.TypedQuery.class));
+        mockSnapshotLoad(orderId, List.<Object[]>of(snapshotRow));
+        when(snapshotService.restoreSnapshot(orderId, "{}", null, null, Order.class)).thenReturn(order);
 
         // When
         var result = eventStore.loadFromLatestSnapshot(orderId, Order.class);
@@ -72,7 +111,8 @@ class JpaEventStoreTest {
         // Then
         assertTrue(result.isPresent());
         assertEquals(orderId, result.get().getId());
-        verify(snapshotService).restoreFromLatestSnapshot(orderId, Order.class);
+        verify(snapshotService).restoreSnapshot(orderId, "{}", null, null, Order.class);
+        verify(entityManager, never()).createQuery(anyString(), eq(EventEntity.class)); // Tail comes with the snapshot
     }
 
     @Test
@@ -81,30 +121,57 @@ class JpaEventStoreTest {
         var orderId = UUID.randomUUID().toString();
         var event = new OrderCreatedEvent(orderId, 1L, "customer-1", "correlation", "causation");
 
-        // Mock optimistic concurrency check
-        when(entityManager.createQuery("SELECT MAX(e.version) FROM EventEntity e WHERE e.streamId = :streamId", Long.class))
-            .thenReturn(longQuery);
-        when(longQuery.setParameter("streamId", orderId)).thenReturn(longQuery);
-        when(longQuery.getSingleResult()).thenReturn(0L); // Expected version
-
         // Mock schema validation (no exception thrown)
         doNothing().when(schemaManager).validateEvent(any());
 
-        // Mock JSON serialization
-        when(objectMapper.writeValueAsString(any())).thenReturn("{\"eventData\": \"test\"}");
+        // Mock stream head creation for a new stream
+        when(entityManager.createNativeQuery(startsWith("INSERT INTO streams"))).thenReturn(streamHeadQuery);
+        when(streamHeadQuery.setParameter(anyString(), any())).thenReturn(streamHeadQuery);
+        when(streamHeadQuery.executeUpdate()).thenReturn(1);
+
+        // Mock global position allocation
+        when(entityManager.createNativeQuery(startsWith("SELECT nextval"))).thenReturn(positionQuery);
+        when(positionQuery.setParameter("count", 1)).thenReturn(positionQuery);
+        when(positionQuery.getResultList()).thenReturn(List.of(7L));
 
-        // Mock event loading for snapshot creation
-        when(entityManager.createQuery("SELECT e FROM EventEntity e WHERE e.streamId = :streamId ORDER BY e.version ASC", EventEntity.class))
-            .thenReturn(eventQuery);
-        when(eventQuery.setParameter("streamId", orderId)).thenReturn(eventQuery);
-        when(eventQuery.getResultList()).thenReturn(List.of());
+        // Mock JSON serialization
+        when(objectMapper.writeValueAsBytes(any())).thenReturn("{\"eventData\": \"test\"}".getBytes());
 
         // When
-        eventStore.appendEvents(orderId, List.of(event), 0L);
+        var lastPosition = eventStore.appendEvents(orderId, List.of(event), 0L);
 
         // Then
         verify(entityManager, times(1)).persist(any(EventEntity.class));
         verify(entityManager).flush();
+        verify(streamHeadQuery).setParameter("version", 1L);
+        verify(snapshotService).isSnapshotDue(0L, 1L);
+        verify(snapshotWriter, never()).requestAfterCommit(anyString(), any());
+        assertEquals(7L, lastPosition);
+        assertEquals(7L, event.getGlobalPosition());
+    }
+
+    @Test
+    void shouldRequestSnapshotAfterAppendWithoutWritingItInline() throws Exception {
+        // Given
+        var orderId = UUID.randomUUID().toString();
+        var order = Order.create(orderId, "customer-1", "correlation");
+
+        when(entityManager.createNativeQuery(startsWith("INSERT INTO streams"))).thenReturn(streamHeadQuery);
+        when(streamHeadQuery.setParameter(anyString(), any())).thenReturn(streamHeadQuery);
+        when(streamHeadQuery.executeUpdate()).thenReturn(1);
+        when(entityManager.createNativeQuery(startsWith("SELECT nextval"))).thenReturn(positionQuery);
+        when(positionQuery.setParameter("count", 1)).thenReturn(positionQuery);
+        when(positionQuery.getResultList()).thenReturn(List.of(3L));
+        when(objectMapper.writeValueAsBytes(any())).thenReturn("{}".getBytes());
+        when(snapshotService.isSnapshotDue(0L, 1L)).thenReturn(true);
+
+        // When
+        eventStore.appendEvents(orderId, order.getUncommittedEvents(), 0L);
+
+        // Then - the snapshot is handed to the background writer; the append neither reloads nor serializes
+        verify(snapshotWriter).requestAfterCommit(orderId, aggregateRegistry.findByEvent(OrderCreatedEvent.class).orElseThrow());
+        verify(snapshotService, never()).createSnapshot(any());
+        verify(entityManager, never()).createQuery(anyString(), eq(EventEntity.class));
     }
 
     @Test
@@ -113,59 +180,366 @@ class JpaEventStoreTest {
         var orderId = UUID.randomUUID().toString();
         var event = new OrderCreatedEvent(orderId, 2L, "customer-1", "correlation", "causation");
 
-        // Mock optimistic concurrency check to return version 1 (conflict with expected 0)
-        when(entityManager.createQuery("SELECT MAX(e.version) FROM EventEntity e WHERE e.streamId = :streamId", Long.class))
-            .thenReturn(longQuery);
-        when(longQuery.setParameter("streamId", orderId)).thenReturn(longQuery);
-        when(longQuery.getSingleResult()).thenReturn(1L); // Current version is 1, expected is 0
+        // Mock the conditional head update matching no row: the head is at version 2, not 1
+        when(entityManager.createNativeQuery(startsWith("UPDATE streams"))).thenReturn(streamHeadQuery);
+        when(streamHeadQuery.setParameter(anyString(), any())).thenReturn(streamHeadQuery);
+        when(streamHeadQuery.executeUpdate()).thenReturn(0);
+        when(entityManager.createNativeQuery(startsWith("INSERT INTO streams"))).thenReturn(streamHeadQuery); // Head exists, nothing to seed
+        when(entityManager.createNativeQuery(startsWith("SELECT version FROM streams"))).thenReturn(positionQuery);
+        when(positionQuery.setParameter(anyString(), any())).thenReturn(positionQuery);
+        when(positionQuery.getResultList()).thenReturn(List.of(2L));
 
         // When/Then
-        assertThrows(EventStoreException.class, () ->
+        var exception = assertThrows(OptimisticConcurrencyException.class, () ->
+            eventStore.appendEvents(orderId, List.of(event), 1L));
+        assertInstanceOf(EventStoreException.class, exception);
+        assertEquals("Expected version 1 but current version is 2", exception.getMessage());
+        verify(entityManager, never()).persist(any());
+    }
+
+    @Test
+    void shouldRejectCreatingStreamThatAlreadyExists() {
+        // Given
+        var orderId = UUID.randomUUID().toString();
+        var event = new OrderCreatedEvent(orderId, 1L, "customer-1", "correlation", "causation");
+
+        when(entityManager.createNativeQuery(startsWith("INSERT INTO streams"))).thenReturn(streamHeadQuery);
+        when(streamHeadQuery.setParameter(anyString(), any())).thenReturn(streamHeadQuery);
+        when(streamHeadQuery.executeUpdate()).thenReturn(0); // Another writer created it first
+        when(entityManager.createNativeQuery(startsWith("SELECT version FROM streams"))).thenReturn(positionQuery);
+        when(positionQuery.setParameter(anyString(), any())).thenReturn(positionQuery);
+        when(positionQuery.getResultList()).thenReturn(List.of(1L));
+
+        // When/Then
+        assertThrows(OptimisticConcurrencyException.class, () ->
             eventStore.appendEvents(orderId, List.of(event), 0L));
     }
 
+    @Test
+    void shouldSeedHeadOfStreamWrittenBeforeHeadsWereTracked() throws Exception {
+        // Given - the stream has events up to version 1 but no head row, so the first update misses
+        var orderId = UUID.randomUUID().toString();
+        var event = new OrderItemAddedEvent(orderId, 2L, "product-1", "Product 1", 1, BigDecimal.TEN,
+            "correlation", "causation");
+        var seedQuery = mock(Query.class);
+
+        doNothing().when(schemaManager).validateEvent(any());
+        when(entityManager.createNativeQuery(startsWith("UPDATE streams"))).thenReturn(streamHeadQuery);
+        when(streamHeadQuery.setParameter(anyString(), any())).thenReturn(streamHeadQuery);
+        when(streamHeadQuery.executeUpdate()).thenReturn(0, 1);
+        when(entityManager.createNativeQuery(contains("MAX(version)"))).thenReturn(seedQuery);
+        when(seedQuery.setParameter(anyString(), any())).thenReturn(seedQuery);
+        when(seedQuery.executeUpdate()).thenReturn(1);
+        when(entityManager.createNativeQuery(startsWith("SELECT nextval"))).thenReturn(positionQuery);
+        when(positionQuery.setParameter("count", 1)).thenReturn(positionQuery);
+        when(positionQuery.getResultList()).thenReturn(List.of(9L));
+        when(objectMapper.writeValueAsBytes(any())).thenReturn("{}".getBytes());
+
+        // When
+        var lastPosition = eventStore.appendEvents(orderId, List.of(event), 1L);
+
+        // Then - the head was seeded from the events and the append went through against it
+        verify(seedQuery).setParameter("streamId", orderId);
+        verify(streamHeadQuery, times(2)).executeUpdate();
+        verify(entityManager).persist(any(EventEntity.class));
+        assertEquals(9L, lastPosition);
+    }
+
+    @Test
+    void shouldReadGlobalLogWithPositionCursor() {
+        // Given
+        when(commitWatermark.current()).thenReturn(100L);
+        when(entityManager.createQuery(startsWith("SELECT e.eventId"), eq(Object[].class))).thenReturn(rowQuery);
+        when(rowQuery.setParameter("afterPosition", 42L)).thenReturn(rowQuery);
+        when(rowQuery.setParameter("watermark", 100L)).thenReturn(rowQuery);
+        when(rowQuery.setMaxResults(100)).thenReturn(rowQuery);
+        when(rowQuery.setHint(anyString(), any())).thenReturn(rowQuery);
+        when(rowQuery.getResultList()).thenReturn(List.of()); // Nothing after the cursor
+
+        // When
+        var batch = eventStore.readAllEvents(42L, 100);
+
+        // Then
+        assertTrue(batch.isEmpty());
+        assertEquals(42L, batch.lastPosition());
+        verify(rowQuery, never()).setFirstResult(anyInt());
+        verify(rowQuery).setHint(HibernateHints.HINT_READ_ONLY, true);
+        verify(entityManager, never()).createQuery(anyString(), eq(EventEntity.class)); // No managed entities
+    }
+
+    @Test
+    void shouldNotReadPastCommitWatermark() {
+        // Given - an append reserved position 43 but has not committed yet
+        when(commitWatermark.current()).thenReturn(42L);
+
+        // When
+        var batch = eventStore.readAllEvents(42L, 100);
+
+        // Then
+        assertTrue(batch.isEmpty());
+        assertEquals(42L, batch.lastPosition());
+        verify(entityManager, never()).createQuery(anyString(), any(Class.class));
+    }
+
+    @Test
+    void shouldStreamEventsThroughCursorDeserializingLazily() throws Exception {
+        // Given
+        var orderId = UUID.randomUUID().toString();
+        var first = new OrderCreatedEvent(orderId, 1L, "customer-1", "correlation", null);
+        when(entityManager.createQuery(startsWith("SELECT e.eventId"), eq(Object[].class))).thenReturn(rowQuery);
+        when(rowQuery.setParameter(anyString(), any())).thenReturn(rowQuery);
+        when(rowQuery.setHint(anyString(), any())).thenReturn(rowQuery);
+        when(rowQuery.getResultStream()).thenReturn(Stream.of(
+            row(first.getEventId(), "first", 1L),
+            row("event-2", "second", 2L)));
+        when(objectMapper.readValue("first".getBytes(), DomainEvent.class)).thenReturn(first);
+
+        // When
+        try (var events = eventStore.streamEvents(orderId, 0L)) {
+            assertEquals(first, events.findFirst().orElseThrow());
+        }
+
+        // Then - rows come in fetch-size chunks, and the unread row is never deserialized
+        verify(rowQuery).setHint(HibernateHints.HINT_FETCH_SIZE, 2);
+        verify(objectMapper, never()).readValue("second".getBytes(), DomainEvent.class);
+        verify(entityManager, never()).createQuery(anyString(), eq(EventEntity.class));
+    }
+
+    @Test
+    void shouldDeserializeEnvelopeOnlyWhenEventIsRequested() throws Exception {
+        // Given
+        var created = new OrderCreatedEvent("order", 1L, "customer-1", "correlation", null);
+        when(commitWatermark.current()).thenReturn(100L);
+        when(entityManager.createQuery(startsWith("SELECT e.eventId"), eq(Object[].class))).thenReturn(rowQuery);
+        when(rowQuery.setParameter(anyString(), any())).thenReturn(rowQuery);
+        when(rowQuery.setMaxResults(anyInt())).thenReturn(rowQuery);
+        when(rowQuery.setHint(anyString(), any())).thenReturn(rowQuery);
+        when(rowQuery.getResultList()).thenReturn(List.of(row(created.getEventId(), "created", 7L)));
+        doReturn(Optional.of(OrderCreatedEvent.class)).when(schemaManager).findEventClass("1");
+        when(objectMapper.readValue("created".getBytes(), DomainEvent.class)).thenReturn(created);
+
+        // When
+        var batch = eventStore.readAllEnvelopes(0L, 100);
+        var envelope = batch.envelopes().getFirst();
+
+        // Then - the metadata is there before anything is decoded, and decoding happens once
+        assertEquals(7L, batch.lastPosition());
+        assertEquals("order", envelope.getStreamId());
+        assertTrue(envelope.isOfType(OrderCreatedEvent.class));
+        assertFalse(envelope.isOfType(OrderItemAddedEvent.class));
+        assertFalse(envelope.isDecoded());
+        verify(objectMapper, never()).readValue(any(byte[].class), eq(DomainEvent.class));
+
+        assertSame(envelope.getEvent(), envelope.getEvent());
+        assertEquals(7L, created.getGlobalPosition());
+        verify(objectMapper, times(1)).readValue("created".getBytes(), DomainEvent.class);
+    }
+
+    @Test
+    void shouldPushEventTypeFilterIntoQuery() {
+        // Given - one matching event, fewer than the limit, below a watermark of 100
+        when(commitWatermark.current()).thenReturn(100L);
+        when(entityManager.createQuery(contains("e.eventType = :eventType"), eq(Object[].class))).thenReturn(rowQuery);
+        when(rowQuery.setParameter(anyString(), any())).thenReturn(rowQuery);
+        when(rowQuery.setMaxResults(anyInt())).thenReturn(rowQuery);
+        when(rowQuery.setHint(anyString(), any())).thenReturn(rowQuery);
+        when(rowQuery.getResultList()).thenReturn(List.of(row("event-1", "item", 7L)), List.of());
+        when(schemaManager.findStoredEventTypes(OrderItemAddedEvent.class)).thenReturn(Set.of("2", "OrderItemAdded"));
+
+        // When
+        var batch = eventStore.readAllEnvelopes(0L, 100, EventFilter.forEventTypes(OrderItemAddedEvent.class));
+
+        // Then - one keyset read per stored type, and the next read starts past the events they skipped
+        verify(rowQuery).setParameter("eventType", "2");
+        verify(rowQuery).setParameter("eventType", "OrderItemAdded");
+        verify(rowQuery, times(2)).setMaxResults(100);
+        assertEquals(1, batch.size());
+        assertEquals(100L, batch.lastPosition());
+    }
+
+    @Test
+    void shouldMergeReadsOfEachEventTypeInPositionOrder() {
+        // Given - both types have events past the limit
+        when(commitWatermark.current()).thenReturn(100L);
+        when(entityManager.createQuery(contains("e.eventType = :eventType"), eq(Object[].class))).thenReturn(rowQuery);
+        when(rowQuery.setParameter(anyString(), any())).thenReturn(rowQuery);
+        when(rowQuery.setMaxResults(anyInt())).thenReturn(rowQuery);
+        when(rowQuery.setHint(anyString(), any())).thenReturn(rowQuery);
+        when(rowQuery.getResultList()).thenReturn(
+            List.of(row("event-1", "item", 3L), row("event-4", "item", 9L)),
+            List.of(row("event-2", "item", 5L), row("event-3", "item", 8L)));
+        when(schemaManager.findStoredEventTypes(OrderItemAddedEvent.class)).thenReturn(Set.of("2", "OrderItemAdded"));
+
+        // When
+        var batch = eventStore.readAllEnvelopes(0L, 2, EventFilter.forEventTypes(OrderItemAddedEvent.class));
+
+        // Then - the lowest positions across both reads, and the cursor stops at the last one handed out
+        assertEquals(List.of(3L, 5L), batch.envelopes().stream().map(EventEnvelope::getGlobalPosition).toList());
+        assertEquals(5L, batch.lastPosition());
+    }
+
+    @Test
+    void shouldSelectAggregateTypeByItsRegisteredEventTypes() {
+        // Given - an event written before the aggregate type column was filled in
+        when(commitWatermark.current()).thenReturn(100L);
+        when(entityManager.createQuery(contains("e.eventType = :eventType"), eq(Object[].class))).thenReturn(rowQuery);
+        when(rowQuery.setParameter(anyString(), any())).thenReturn(rowQuery);
+        when(rowQuery.setMaxResults(anyInt())).thenReturn(rowQuery);
+        when(rowQuery.setHint(anyString(), any())).thenReturn(rowQuery);
+        var legacyRow = row("event-1", "created", 7L);
+        legacyRow[12] = null;
+        when(rowQuery.getResultList()).thenReturn(List.<Object[]>of(legacyRow));
+        when(schemaManager.findStoredEventTypes(OrderCreatedEvent.class)).thenReturn(Set.of("1"));
+        doReturn(Optional.of(OrderCreatedEvent.class)).when(schemaManager).findEventClass("1");
+        var filter = EventFilter.forAggregateTypes(Order.class);
+
+        // When
+        var batch = eventStore.readAllEnvelopes(0L, 100, filter);
+
+        // Then - the query never looks at the aggregate type column, and the envelope still has one
+        verify(entityManager, never()).createQuery(contains("aggregateType IN"), eq(Object[].class));
+        verify(rowQuery).setParameter("eventType", "1");
+        assertEquals("Order", batch.envelopes().getFirst().getAggregateType());
+        assertTrue(filter.matches(batch.envelopes().getFirst()));
+    }
+
+    @Test
+    void shouldReadOnlyEventsOutsideCachedRun() throws Exception {
+        // Given - versions 1 and 2 are cached, and another process has since appended version 3
+        var cache = streamCache(true);
+        eventStore = cachingEventStore(cache);
+        var orderId = UUID.randomUUID().toString();
+        var cached = List.<DomainEvent>of(
+            new OrderCreatedEvent(orderId, 1L, "customer-1", "correlation", null),
+            new OrderItemAddedEvent(orderId, 2L, "product-2", "Product 2", 1, BigDecimal.TEN, "correlation", null));
+        cache.add(orderId, 0L, cached);
+        var appended = new OrderItemAddedEvent(orderId, 3L, "product-3", "Product 3", 1, BigDecimal.TEN,
+            "correlation", null);
+        when(entityManager.createQuery(startsWith("SELECT e.eventId"), eq(Object[].class))).thenReturn(rowQuery);
+        when(rowQuery.setParameter(anyString(), any())).thenReturn(rowQuery);
+        when(rowQuery.setHint(anyString(), any())).thenReturn(rowQuery);
+        when(rowQuery.getResultStream()).thenReturn(Stream.<Object[]>of(row(appended.getEventId(), "third", 3L)));
+        when(objectMapper.readValue("third".getBytes(), DomainEvent.class)).thenReturn(appended);
+
+        // When
+        var events = eventStore.getEvents(orderId, 0L);
+
+        // Then - the cached versions are left out of the read and served from memory
+        assertEquals(List.of(cached.get(0), cached.get(1), appended), events);
+        verify(entityManager).createQuery(contains("e.version < :firstCached"), eq(Object[].class));
+        verify(rowQuery).setParameter("firstCached", 1L);
+        verify(rowQuery).setParameter("lastCached", 2L);
+        verify(entityManager, never()).createNativeQuery(startsWith("SELECT version FROM streams"));
+    }
+
+    @Test
+    void shouldNotLoadCachedAggregateWithoutSnapshot() {
+        // Given - the whole stream is cached, but no snapshot has been taken
+        var cache = streamCache(true);
+        eventStore = cachingEventStore(cache);
+        var orderId = UUID.randomUUID().toString();
+        cache.add(orderId, 0L, List.of(new OrderCreatedEvent(orderId, 1L, "customer-1", "correlation", null)));
+        mockSnapshotLoad(orderId, List.of());
+
+        // When
+        var result = eventStore.loadFromLatestSnapshot(orderId, Order.class);
+
+        // Then - full rebuilds are left to getEvents, as without the cache
+        assertTrue(result.isEmpty());
+        verify(snapshotService, never()).restoreSnapshot(anyString(), any(), any(), any(), any());
+    }
+
+    @Test
+    void shouldTakeEventsAfterSnapshotFromCachedRun() throws Exception {
+        // Given - the snapshot is at version 2, version 3 is only in the database, and 4 and 5 are cached
+        var cache = streamCache(true);
+        eventStore = cachingEventStore(cache);
+        var orderId = UUID.randomUUID().toString();
+        var order = new Order(orderId);
+        order.loadFromHistory(List.of(new OrderCreatedEvent(orderId, 2L, "customer-1", "correlation", null)));
+        var uncached = new OrderItemAddedEvent(orderId, 3L, "product-3", "Product 3", 1, BigDecimal.TEN,
+            "correlation", null);
+        cache.add(orderId, 3L, List.of(
+            new OrderItemAddedEvent(orderId, 4L, "product-4", "Product 4", 1, BigDecimal.TEN, "correlation", null),
+            new OrderItemAddedEvent(orderId, 5L, "product-5", "Product 5", 1, BigDecimal.TEN, "correlation", null)));
+        mockSnapshotLoad(orderId, List.of(
+            new Object[]{0, 2L, "snapshot", null, null, null, null, null},
+            new Object[]{1, 3L, "event", uncached.getEventId(), 42L, null, "json", null}));
+        when(snapshotService.restoreSnapshot(orderId, "snapshot", null, null, Order.class)).thenReturn(order);
+        when(objectMapper.readValue("event".getBytes(), DomainEvent.class)).thenReturn(uncached);
+
+        // When
+        var result = eventStore.loadFromLatestSnapshot(orderId, Order.class);
+
+        // Then - one statement reads the snapshot and the gap before the cached run
+        assertEquals(5L, result.orElseThrow().getVersion());
+        verify(snapshotQuery).setParameter("firstCached", 4L);
+        verify(snapshotQuery).setParameter("lastCached", 5L);
+        verify(entityManager, times(1)).createNativeQuery(anyString());
+    }
+
     @Test
     void shouldReturnEmptyWhenNoSnapshotExists() {
         // Given
         var orderId = UUID.randomUUID().toString();
-        when(snapshotService.restoreFromLatestSnapshot(orderId, Order.class))
-            .thenReturn(Optional.empty());
+        mockSnapshotLoad(orderId, List.of());
 
         // When
         var result = eventStore.loadFromLatestSnapshot(orderId, Order.class);
 
         // Then
         assertTrue(result.isEmpty());
+        verify(snapshotService, never()).restoreSnapshot(anyString(), any(), any(), any(), any());
     }
 
     @Test
-    void shouldLoadEventsAfterSnapshot() throws Exception {
+    void shouldApplyOnlyEventsAfterSnapshot() throws Exception {
         // Given
         var orderId = UUID.randomUUID().toString();
-        var order = new Order(orderId);
         var snapshotVersion = 5L;
-        
-        // Create a proper order with initial state
-        var initialEvent = new OrderCreatedEvent(orderId, snapshotVersion, 
-            "customer-1", "correlation", "causation");
-        order.loadFromHistory(List.of(initialEvent));
 
-        when(snapshotService.restoreFromLatestSnapshot(orderId, Order.class))
-            .thenReturn(Optional.of(order));
+        // The snapshot already contains version 5; the query only returns what comes after it
+        var order = new Order(orderId);
+        order.loadFromHistory(List.of(new OrderCreatedEvent(orderId, snapshotVersion,
+            "customer-1", "correlation", "causation")));
+        var tailEvent = new OrderCreatedEvent(orderId, snapshotVersion + 1, "customer-1", "correlation", "causation");
 
-        // Mock loading events after snapshot - return empty list for simplicity
-        when(entityManager.createQuery("SELECT e FROM EventEntity e WHERE e.streamId = :streamId AND e.version >= :fromVersion ORDER BY e.version ASC", EventEntity.class))
-            .thenReturn(eventQuery);
-        when(eventQuery.setParameter("streamId", orderId)).thenReturn(eventQuery);
-        when(eventQuery.setParameter("fromVersion", snapshotVersion)).thenReturn(eventQuery);
-        when(eventQuery.getResultList()).thenReturn(List.of()); // No new events after snapshot
+        mockSnapshotLoad(orderId, List.of(
+            new Object[]{0, snapshotVersion, "snapshot", null, null, null, null, null},
+            new Object[]{1, snapshotVersion + 1, "event", tailEvent.getEventId(), 42L, null, "json", null}));
+        when(snapshotService.restoreSnapshot(orderId, "snapshot", null, null, Order.class)).thenReturn(order);
+        when(objectMapper.readValue("event".getBytes(), DomainEvent.class)).thenReturn(tailEvent);
 
         // When
         var result = eventStore.loadFromLatestSnapshot(orderId, Order.class);
 
         // Then
         assertTrue(result.isPresent());
-        assertEquals(snapshotVersion, result.get().getVersion());
-        verify(snapshotService).restoreFromLatestSnapshot(orderId, Order.class);
+        assertEquals(snapshotVersion + 1, result.get().getVersion());
+        assertEquals(42L, tailEvent.getGlobalPosition());
+        verify(entityManager, times(1)).createNativeQuery(anyString());
+    }
+
+    private JpaEventStore cachingEventStore(StreamCache cache) {
+        return new JpaEventStore(entityManager,
+            new EventSerializerRegistry(List.of(new JsonEventSerializer(objectMapper)), JsonEventSerializer.FORMAT),
+            new PayloadCompressor(PayloadCompressor.NONE, 0, List.of(), new SimpleMeterRegistry()),
+            schemaManager, snapshotService, commitWatermark, aggregateRegistry, snapshotWriter, cache, 2);
+    }
+
+    private StreamCache streamCache(boolean enabled) {
+        return new StreamCache(transactionRegistry, new SimpleMeterRegistry(), enabled, 10, 10);
+    }
+
+    // A row of the event read queries
+    private static Object[] row(String eventId, String eventData, long globalPosition) {
+        return new Object[]{eventId, "json", null, eventData, null, globalPosition, "1", "order",
+            globalPosition, Instant.now(), "correlation", null, "Order"};
+    }
+
+    private void mockSnapshotLoad(String orderId, List<Object[]> rows) {
+        when(entityManager.createNativeQuery(startsWith("WITH snapshot"))).thenReturn(snapshotQuery);
+        when(snapshotQuery.setParameter(anyString(), any())).thenReturn(snapshotQuery);
+        when(snapshotQuery.getResultList()).thenReturn(rows);
     }
 }
@@ -0,0 +1,89 @@
+package ca.bazlur.eventsourcing.infrastructure;
+
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@QuarkusTest
+class SnapshotRepositoryTest {
+
+    @Inject
+    SnapshotRepository snapshotRepository;
+
+    @Test
+    @Transactional
+    void shouldReplaceSnapshotWhenOnlyLatestIsRetained() {
+        // Given
+        var orderId = UUID.randomUUID().toString();
+        snapshotRepository.save(new SnapshotEntity(orderId, "Order", 100L, "{\"version\": 100}"));
+
+        // When - a second snapshot used to violate the one-row-per-aggregate constraint
+        snapshotRepository.save(new SnapshotEntity(orderId, "Order", 200L, "{\"version\": 200}"));
+
+        // Then
+        assertEquals(1, snapshotRepository.count("aggregateId", orderId));
+        assertEquals(200L, snapshotRepository.findLatestSnapshotVersion(orderId, "Order").orElseThrow());
+    }
+
+    @Test
+    @Transactional
+    void shouldOverwriteSnapshotOfSameVersion() {
+        // Given
+        var orderId = UUID.randomUUID().toString();
+        snapshotRepository.save(new SnapshotEntity(orderId, "Order", 100L, "{\"attempt\": 1}"));
+
+        // When
+        snapshotRepository.save(new SnapshotEntity(orderId, "Order", 100L, "{\"attempt\": 2}"));
+
+        // Then
+        snapshotRepository.getEntityManager().clear();
+        var snapshot = snapshotRepository.findLatestSnapshot(orderId, "Order").orElseThrow();
+        assertTrue(snapshot.getStateData().contains("2"));
+        assertEquals(1, snapshotRepository.count("aggregateId", orderId));
+    }
+
+    @Test
+    @Transactional
+    void shouldNotStoreVersionOlderThanAllRetainedSnapshots() {
+        // Given
+        var orderId = UUID.randomUUID().toString();
+        snapshotRepository.save(new SnapshotEntity(orderId, "Order", 200L, "{}"));
+
+        // When - a late write of an older version arrives once the newer one is stored
+        snapshotRepository.save(new SnapshotEntity(orderId, "Order", 100L, "{}"));
+
+        // Then
+        var versions = snapshotRepository.find("aggregateId = ?1 order by version", orderId)
+            .stream()
+            .map(SnapshotEntity::getVersion)
+            .toList();
+        assertEquals(List.of(200L), versions);
+    }
+
+    @Test
+    @Transactional
+    void shouldKeepOnlyNewestRetainedVersions() {
+        // Given
+        var repository = new SnapshotRepository(2);
+        var orderId = UUID.randomUUID().toString();
+
+        // When - a late write of an older version must not push out the newer ones
+        repository.save(new SnapshotEntity(orderId, "Order", 100L, "{}"));
+        repository.save(new SnapshotEntity(orderId, "Order", 300L, "{}"));
+        repository.save(new SnapshotEntity(orderId, "Order", 200L, "{}"));
+        repository.save(new SnapshotEntity(orderId, "Order", 400L, "{}"));
+
+        // Then
+        var versions = repository.find("aggregateId = ?1 order by version", orderId)
+            .stream()
+            .map(SnapshotEntity::getVersion)
+            .toList();
+        assertEquals(List.of(300L, 400L), versions);
+    }
+}
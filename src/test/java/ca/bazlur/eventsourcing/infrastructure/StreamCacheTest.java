@@ -0,0 +1,104 @@
+package ca.bazlur.eventsourcing.infrastructure;
+
+import ca.bazlur.eventsourcing.core.DomainEvent;
+import ca.bazlur.eventsourcing.domain.order.events.OrderCreatedEvent;
+import ca.bazlur.eventsourcing.domain.order.events.OrderItemAddedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class StreamCacheTest {
+
+    private final TransactionSynchronizationRegistry transactionRegistry = mock(TransactionSynchronizationRegistry.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final StreamCache cache = new StreamCache(transactionRegistry, meterRegistry, true, 2, 3);
+
+    @Test
+    void shouldOnlyCacheEventsOnceTheirAppendCommits() {
+        // Given
+        when(transactionRegistry.getTransactionStatus()).thenReturn(Status.STATUS_ACTIVE);
+        cache.addAfterCommit("order-1", 0L, events("order-1", 1, 1));
+        cache.addAfterCommit("order-2", 0L, events("order-2", 1, 1));
+        var synchronizations = ArgumentCaptor.forClass(Synchronization.class);
+        verify(transactionRegistry, times(2)).registerInterposedSynchronization(synchronizations.capture());
+
+        // When
+        synchronizations.getAllValues().get(0).afterCompletion(Status.STATUS_ROLLEDBACK);
+        synchronizations.getAllValues().get(1).afterCompletion(Status.STATUS_COMMITTED);
+
+        // Then
+        assertTrue(cache.findRun("order-1").isEmpty());
+        assertEquals(1, cache.findRun("order-2").orElseThrow().size());
+        assertEquals(1.0, meterRegistry.get("eventstore.stream-cache.requests").tag("outcome", "hit").counter().count());
+        assertEquals(1.0, meterRegistry.get("eventstore.stream-cache.requests").tag("outcome", "miss").counter().count());
+    }
+
+    @Test
+    void shouldKeepOnlyContiguousTailOfEachStream() {
+        // Given
+        cache.add("order-1", 0L, events("order-1", 1, 2));
+
+        // When - extends the run, which then keeps only the last three events
+        cache.add("order-1", 2L, events("order-1", 3, 4));
+
+        // Then
+        assertEquals(List.of(2L, 3L, 4L), versions(cache.findRun("order-1").orElseThrow()));
+    }
+
+    @Test
+    void shouldRestartRunOnGapAndIgnoreOutOfOrderCommits() {
+        // Given - versions 3 and 4 were appended by a commit the cache never saw
+        cache.add("order-1", 0L, events("order-1", 1, 2));
+        cache.add("order-1", 4L, events("order-1", 5, 5));
+
+        // When - a commit of versions 3 and 4 reports after the later one
+        cache.add("order-1", 2L, events("order-1", 3, 4));
+
+        // Then
+        assertEquals(List.of(5L), versions(cache.findRun("order-1").orElseThrow()));
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedStream() {
+        // Given
+        cache.add("order-1", 0L, events("order-1", 1, 1));
+        cache.add("order-2", 0L, events("order-2", 1, 1));
+        cache.findRun("order-1"); // order-2 is now the least recently used
+
+        // When
+        cache.add("order-3", 0L, events("order-3", 1, 1));
+
+        // Then
+        assertEquals(2.0, meterRegistry.get("eventstore.stream-cache.size").gauge().value());
+        assertTrue(cache.findRun("order-2").isEmpty());
+        assertTrue(cache.findRun("order-1").isPresent());
+        assertTrue(cache.findRun("order-3").isPresent());
+    }
+
+    private static List<DomainEvent> events(String streamId, long fromVersion, long toVersion) {
+        var events = new ArrayList<DomainEvent>();
+        for (var version = fromVersion; version <= toVersion; version++) {
+            events.add(version == 1
+                ? new OrderCreatedEvent(streamId, version, "customer-1", "correlation", null)
+                : new OrderItemAddedEvent(streamId, version, "product-" + version, "Product " + version,
+                    1, BigDecimal.TEN, "correlation", null));
+        }
+        return events;
+    }
+
+    private static List<Long> versions(List<DomainEvent> events) {
+        return events.stream()
+            .map(DomainEvent::getVersion)
+            .toList();
+    }
+}
@@ -0,0 +1,153 @@
+package ca.bazlur.eventsourcing.infrastructure.serialization;
+
+import ca.bazlur.eventsourcing.core.DomainEvent;
+import ca.bazlur.eventsourcing.core.EventSchemaManager;
+import ca.bazlur.eventsourcing.core.EventSerializer;
+import ca.bazlur.eventsourcing.domain.order.events.OrderItemAddedEvent;
+import ca.bazlur.eventsourcing.infrastructure.AggregateRegistry;
+import ca.bazlur.eventsourcing.infrastructure.CommitWatermark;
+import ca.bazlur.eventsourcing.infrastructure.EventEntity;
+import ca.bazlur.eventsourcing.infrastructure.JpaEventStore;
+import ca.bazlur.eventsourcing.infrastructure.StreamCache;
+import ca.bazlur.eventsourcing.infrastructure.snapshot.SnapshotService;
+import ca.bazlur.eventsourcing.infrastructure.snapshot.SnapshotWriter;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static ca.bazlur.eventsourcing.test.BenchmarkFixture.itemEvents;
+import static ca.bazlur.eventsourcing.test.BenchmarkFixture.orderEvents;
+import static ca.bazlur.eventsourcing.test.BenchmarkFixture.time;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares the Smile payload format with JSON stored in jsonb: payload size, serialization CPU,
+ * and append and replay throughput through the event store.
+ */
+@QuarkusTest
+class EventSerializationBenchmarkTest {
+    private static final Logger log = LoggerFactory.getLogger(EventSerializationBenchmarkTest.class);
+    private static final int EVENTS = 2_000;
+    private static final int STREAMS = 20;
+
+    @Inject
+    JsonEventSerializer jsonSerializer;
+
+    @Inject
+    SmileEventSerializer smileSerializer;
+
+    @Inject
+    PayloadCompressor payloadCompressor;
+
+    @Inject
+    EntityManager entityManager;
+
+    @Inject
+    EventSchemaManager schemaManager;
+
+    @Inject
+    SnapshotService snapshotService;
+
+    @Inject
+    CommitWatermark commitWatermark;
+
+    @Inject
+    AggregateRegistry aggregateRegistry;
+
+    @Inject
+    SnapshotWriter snapshotWriter;
+
+    @Inject
+    StreamCache streamCache;
+
+    @Test
+    void shouldWriteSmallerPayloadsThanJson() {
+        // Arrange
+        var events = itemEvents(UUID.randomUUID().toString(), EVENTS);
+
+        // Act
+        var json = time(() -> serializedBytes(jsonSerializer, events));
+        var smile = time(() -> serializedBytes(smileSerializer, events));
+
+        log.info("Serialized {} events: json {} bytes in {} us, smile {} bytes in {} us",
+            EVENTS, json.result(), json.micros(), smile.result(), smile.micros());
+
+        // Assert
+        assertTrue(smile.result() < json.result(), "Expected Smile payloads (" + smile.result()
+            + " bytes) to be smaller than JSON (" + json.result() + " bytes)");
+        var restored = (OrderItemAddedEvent) smileSerializer.deserialize(smileSerializer.serialize(events.getLast()));
+        assertEquals(events.getLast().getEventId(), restored.getEventId());
+        assertEquals(events.getLast().getTimestamp(), restored.getTimestamp());
+        assertEquals(0, events.getLast().getPrice().compareTo(restored.getPrice()));
+    }
+
+    @Test
+    void shouldAppendAndReplayInEitherFormat() {
+        // Arrange - a store for each format; both read every format
+        var jsonStore = store(jsonSerializer);
+        var smileStore = store(smileSerializer);
+
+        // Act
+        var jsonAppend = time(() -> append(jsonStore));
+        var smileAppend = time(() -> append(smileStore));
+        var jsonReplay = time(() -> replay(jsonStore, jsonAppend.result()));
+        var smileReplay = time(() -> replay(smileStore, smileAppend.result()));
+
+        log.info("Appended {} events: json {} us, smile {} us; replayed: json {} us, smile {} us",
+            EVENTS, jsonAppend.micros(), smileAppend.micros(), jsonReplay.micros(), smileReplay.micros());
+
+        // Assert - binary rows leave the jsonb column empty, and either store reads the other's events
+        assertEquals(EVENTS, jsonReplay.result());
+        assertEquals(EVENTS, smileReplay.result());
+        var smileStream = smileAppend.result().getFirst();
+        var stored = QuarkusTransaction.requiringNew().call(() -> entityManager.createQuery(
+                "SELECT e FROM EventEntity e WHERE e.streamId = :streamId", EventEntity.class)
+            .setParameter("streamId", smileStream)
+            .getResultList());
+        assertTrue(stored.stream().allMatch(e -> e.getEventData() == null && e.getPayload() != null
+            && SmileEventSerializer.FORMAT.equals(e.getPayloadFormat())));
+        var crossRead = QuarkusTransaction.requiringNew().call(() -> jsonStore.getEvents(smileStream));
+        assertEquals(EVENTS / STREAMS, crossRead.size());
+    }
+
+    private static long serializedBytes(EventSerializer serializer, List<? extends DomainEvent> events) {
+        long bytes = 0;
+        for (var event : events) {
+            bytes += serializer.serialize(event).length;
+        }
+        return bytes;
+    }
+
+    private List<String> append(JpaEventStore store) {
+        var streamIds = new ArrayList<String>();
+        for (int i = 0; i < STREAMS; i++) {
+            var streamId = UUID.randomUUID().toString();
+            streamIds.add(streamId);
+            QuarkusTransaction.requiringNew().run(() ->
+                store.appendEvents(streamId, orderEvents(streamId, EVENTS / STREAMS), 0L));
+        }
+        return streamIds;
+    }
+
+    private int replay(JpaEventStore store, List<String> streamIds) {
+        var replayed = 0;
+        for (var streamId : streamIds) {
+            replayed += QuarkusTransaction.requiringNew().call(() -> store.getEvents(streamId)).size();
+        }
+        return replayed;
+    }
+
+    private JpaEventStore store(EventSerializer writer) {
+        var serializers = new EventSerializerRegistry(List.of(jsonSerializer, smileSerializer), writer.getFormat());
+        return new JpaEventStore(entityManager, serializers, payloadCompressor,
+            schemaManager, snapshotService, commitWatermark, aggregateRegistry, snapshotWriter, streamCache, 500);
+    }
+}
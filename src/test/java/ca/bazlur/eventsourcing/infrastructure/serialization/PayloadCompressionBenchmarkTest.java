@@ -0,0 +1,129 @@
+package ca.bazlur.eventsourcing.infrastructure.serialization;
+
+import ca.bazlur.eventsourcing.domain.order.Order;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static ca.bazlur.eventsourcing.test.BenchmarkFixture.itemEvents;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Reports the compression ratio and CPU cost of each codec on order snapshots, which are large,
+ * and on single item events, which are small enough that only a dictionary helps. Ratios are
+ * asserted loosely.
+ */
+class PayloadCompressionBenchmarkTest {
+    private static final Logger log = LoggerFactory.getLogger(PayloadCompressionBenchmarkTest.class);
+    private static final int ROUNDS = 200;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Test
+    void shouldReportRatioAndCostPerCodecForSnapshots() throws Exception {
+        // Arrange - an order with many items, as snapshotted
+        var order = Order.create(UUID.randomUUID().toString(), "customer-1", "correlation");
+        for (int i = 0; i < 200; i++) {
+            order.addItem("product-" + i, "Product number " + i, i % 5 + 1, new BigDecimal("19.99"), "correlation");
+        }
+        order.markEventsAsCommitted();
+        var snapshot = objectMapper.writeValueAsBytes(order);
+
+        for (var codec : List.of(new GzipCodec(), new DeflateCodec())) {
+            // Act
+            var result = measure(codec, List.of(snapshot));
+
+            // Assert
+            log.info("{} on a {} byte snapshot: ratio {}, compress {} us, decompress {} us", codec.getName(),
+                snapshot.length, String.format("%.1f", result.ratio()), result.compressMicros(), result.decompressMicros());
+            assertTrue(result.ratio() > 3, codec.getName() + " compressed the snapshot only " + result.ratio() + "x");
+        }
+    }
+
+    @Test
+    void shouldCompressSmallEventsBetterWithTrainedDictionary() throws Exception {
+        // Arrange - train on one set of events, measure on another
+        var training = serializedItemEvents(200);
+        var events = serializedItemEvents(200);
+        var dictionary = DeflateCodec.trainDictionary(training);
+        var plain = new DeflateCodec();
+        var primed = new DeflateCodec(dictionary);
+
+        // Act
+        var plainResult = measure(plain, events);
+        var primedResult = measure(primed, events);
+
+        log.info("deflate on {} events of ~{} bytes: ratio {} without and {} with a {} byte dictionary; "
+                + "compress {} us and {} us", events.size(), events.getFirst().length,
+            String.format("%.2f", plainResult.ratio()), String.format("%.2f", primedResult.ratio()), dictionary.length,
+            plainResult.compressMicros(), primedResult.compressMicros());
+
+        // Assert
+        assertTrue(primedResult.ratio() > plainResult.ratio(),
+            "Expected the dictionary to improve the ratio of small events");
+        var encoded = primed.encode(events.getFirst());
+        assertThrows(PayloadCompressionException.class, () -> plain.decode(encoded));
+        assertArrayEquals(events.getFirst(), primed.decode(encoded));
+        // After a new dictionary takes over, payloads written with the previous one still read
+        var rotated = new DeflateCodec(List.of(DeflateCodec.trainDictionary(events), dictionary));
+        assertArrayEquals(events.getFirst(), rotated.decode(encoded));
+    }
+
+    @Test
+    void shouldStoreSmallOrIncompressiblePayloadsAsTheyAre() {
+        // Arrange
+        var compressor = new PayloadCompressor(GzipCodec.NAME, 64, List.of(), new SimpleMeterRegistry());
+        var small = new byte[32];
+        var random = new byte[4096];
+        new java.util.Random(42).nextBytes(random);
+
+        // Act/Assert
+        assertFalse(compressor.compress(small).isCompressed());
+        assertFalse(compressor.compress(random).isCompressed());
+        var large = "{\"items\": []}".repeat(100).getBytes();
+        var encoded = compressor.compress(large);
+        assertTrue(encoded.isCompressed());
+        assertArrayEquals(large, compressor.decompress(encoded.bytes(), encoded.codec()));
+    }
+
+    private Result measure(PayloadCodec codec, List<byte[]> payloads) {
+        long original = 0;
+        long compressed = 0;
+        long compressNanos = 0;
+        long decompressNanos = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            for (var payload : payloads) {
+                var start = System.nanoTime();
+                var encoded = codec.encode(payload);
+                var encodedAt = System.nanoTime();
+                var decoded = codec.decode(encoded);
+                decompressNanos += System.nanoTime() - encodedAt;
+                compressNanos += encodedAt - start;
+                if (round == 0) {
+                    assertArrayEquals(payload, decoded);
+                    original += payload.length;
+                    compressed += encoded.length;
+                }
+            }
+        }
+        return new Result((double) original / compressed, compressNanos / ROUNDS / 1_000, decompressNanos / ROUNDS / 1_000);
+    }
+
+    private List<byte[]> serializedItemEvents(int count) throws Exception {
+        var events = new ArrayList<byte[]>(count);
+        for (var event : itemEvents(UUID.randomUUID().toString(), count)) {
+            events.add(objectMapper.writeValueAsBytes(event));
+        }
+        return events;
+    }
+
+    private record Result(double ratio, long compressMicros, long decompressMicros) {
+    }
+}
@@ -79,6 +79,22 @@ class DefaultSnapshotStrategyTest {
                 frequency, currentVersion, lastSnapshotVersion));
     }
 
+    @ParameterizedTest(name = "frequency={0}, fromVersion={1}, toVersion={2} => due={3}")
+    @CsvSource({
+        "100, 0, 99, false",        // Append stays below the first boundary
+        "100, 99, 100, true",       // Append lands exactly on a boundary
+        "100, 98, 105, true",       // Multi-event append crosses a boundary
+        "100, 100, 150, false",     // Already past the boundary that was crossed earlier
+        "1, 4, 5, true"             // Minimum frequency snapshots every append
+    })
+    void shouldDecideSnapshotFromAppendedVersionRange(int frequency, long fromVersion, long toVersion, boolean expected) {
+        // Given
+        var strategy = new DefaultSnapshotStrategy(frequency);
+
+        // When/Then
+        assertEquals(expected, strategy.isSnapshotDue(fromVersion, toVersion));
+    }
+
     @Test
     void shouldHandleMaximumVersionValues() {
         // Given
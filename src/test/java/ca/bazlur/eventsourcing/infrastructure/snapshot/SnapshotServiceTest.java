@@ -4,14 +4,20 @@ import ca.bazlur.eventsourcing.core.AggregateRoot;
 import ca.bazlur.eventsourcing.domain.order.Order;
 import ca.bazlur.eventsourcing.infrastructure.SnapshotEntity;
 import ca.bazlur.eventsourcing.infrastructure.SnapshotRepository;
+import ca.bazlur.eventsourcing.infrastructure.serialization.GzipCodec;
+import ca.bazlur.eventsourcing.infrastructure.serialization.PayloadCompressor;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import io.quarkus.test.junit.QuarkusTest;
 import jakarta.inject.Inject;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import java.math.BigDecimal;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -39,7 +45,7 @@ class SnapshotServiceTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        snapshotService = new SnapshotService(snapshotRepository, snapshotStrategy, objectMapper);
+        snapshotService = new SnapshotService(snapshotRepository, snapshotStrategy, objectMapper, noCompression());
     }
 
     @Test
@@ -105,7 +111,7 @@ class SnapshotServiceTest {
         var order = new Order(orderId);
         
         // Create a service with a mock ObjectMapper that throws an exception
-        var snapshotServiceWithMockMapper = new SnapshotService(snapshotRepository, snapshotStrategy, mockObjectMapper);
+        var snapshotServiceWithMockMapper = new SnapshotService(snapshotRepository, snapshotStrategy, mockObjectMapper, noCompression());
         
         when(mockObjectMapper.writeValueAsString(any()))
             .thenThrow(new RuntimeException("JSON serialization error"));
@@ -142,4 +148,37 @@ class SnapshotServiceTest {
         assertThrows(SnapshotRestorationException.class, () ->
             snapshotService.restoreFromLatestSnapshot(orderId, Order.class));
     }
+
+    @Test
+    void shouldStoreLargeSnapshotCompressedAndRestoreIt() {
+        // Given - every snapshot is above the threshold
+        var compressingService = new SnapshotService(snapshotRepository, snapshotStrategy, objectMapper,
+            new PayloadCompressor(GzipCodec.NAME, 0, List.of(), new SimpleMeterRegistry()));
+        var orderId = UUID.randomUUID().toString();
+        var order = Order.create(orderId, "customer-1", "correlation");
+        order.markEventsAsCommitted();
+        for (int i = 0; i < 20; i++) {
+            order.addItem("product-" + i, "Product " + i, 1, BigDecimal.TEN, "correlation");
+        }
+        order.markEventsAsCommitted();
+
+        // When
+        compressingService.createSnapshot(order);
+
+        // Then
+        var saved = ArgumentCaptor.forClass(SnapshotEntity.class);
+        verify(snapshotRepository).save(saved.capture());
+        assertNull(saved.getValue().getStateData());
+        assertEquals(GzipCodec.NAME, saved.getValue().getPayloadCodec());
+
+        when(snapshotRepository.findLatestSnapshot(orderId, "Order")).thenReturn(Optional.of(saved.getValue()));
+        var restored = compressingService.restoreFromLatestSnapshot(orderId, Order.class);
+        assertTrue(restored.isPresent());
+        assertEquals(order.getVersion(), restored.get().getVersion());
+        assertEquals(20, restored.get().getItems().size());
+    }
+
+    private static PayloadCompressor noCompression() {
+        return new PayloadCompressor(PayloadCompressor.NONE, 0, List.of(), new SimpleMeterRegistry());
+    }
 }
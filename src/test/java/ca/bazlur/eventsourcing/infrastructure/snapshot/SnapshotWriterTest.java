@@ -0,0 +1,123 @@
+package ca.bazlur.eventsourcing.infrastructure.snapshot;
+
+import ca.bazlur.eventsourcing.core.SnapshotEventStore;
+import ca.bazlur.eventsourcing.domain.order.Order;
+import ca.bazlur.eventsourcing.domain.order.events.OrderCreatedEvent;
+import ca.bazlur.eventsourcing.infrastructure.AggregateRegistry;
+import ca.bazlur.eventsourcing.infrastructure.AggregateRegistry.AggregateType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@QuarkusTest
+class SnapshotWriterTest {
+
+    private final SnapshotEventStore eventStore = mock(SnapshotEventStore.class);
+    private final SnapshotService snapshotService = mock(SnapshotService.class);
+    private final TransactionSynchronizationRegistry transactionRegistry = mock(TransactionSynchronizationRegistry.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private AggregateType<?> orderType;
+    private SnapshotWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        var registry = new AggregateRegistry();
+        registry.register(Order.class, Order::new, List.of(OrderCreatedEvent.class));
+        orderType = registry.findByEvent(OrderCreatedEvent.class).orElseThrow();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (writer != null) {
+            writer.stop();
+        }
+    }
+
+    @Test
+    void shouldWriteSnapshotInBackground() {
+        // Given
+        writer = startWriter(10);
+        var order = Order.create("order-1", "customer-1", "correlation");
+        when(eventStore.loadFromLatestSnapshot("order-1", Order.class)).thenReturn(Optional.of(order));
+        when(transactionRegistry.getTransactionStatus()).thenReturn(Status.STATUS_NO_TRANSACTION);
+
+        // When
+        writer.requestAfterCommit("order-1", orderType);
+
+        // Then
+        verify(snapshotService, timeout(5000)).createSnapshot(order);
+        assertEquals(1.0, meterRegistry.get("eventstore.snapshot.requests").tag("outcome", "written").counter().count());
+    }
+
+    @Test
+    void shouldOnlyRequestSnapshotOnceTransactionCommits() {
+        // Given
+        writer = startWriter(10);
+        when(transactionRegistry.getTransactionStatus()).thenReturn(Status.STATUS_ACTIVE);
+        when(eventStore.loadFromLatestSnapshot(any(), any())).thenReturn(Optional.empty());
+        when(eventStore.streamEvents(any(), anyLong())).thenAnswer(invocation -> Stream.empty());
+
+        // When
+        writer.requestAfterCommit("order-1", orderType);
+        writer.requestAfterCommit("order-2", orderType);
+        var synchronizations = ArgumentCaptor.forClass(Synchronization.class);
+        verify(transactionRegistry, times(2)).registerInterposedSynchronization(synchronizations.capture());
+        synchronizations.getAllValues().get(0).afterCompletion(Status.STATUS_ROLLEDBACK);
+        synchronizations.getAllValues().get(1).afterCompletion(Status.STATUS_COMMITTED);
+
+        // Then
+        verify(snapshotService, timeout(5000)).createSnapshot(argThat(aggregate -> aggregate.getId().equals("order-2")));
+        verify(eventStore, never()).loadFromLatestSnapshot("order-1", Order.class);
+    }
+
+    @Test
+    void shouldCoalesceRequestsAndDropWhenQueueIsFull() throws Exception {
+        // Given - the single worker is held up on the first snapshot
+        writer = startWriter(1);
+        var blocked = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        when(eventStore.loadFromLatestSnapshot(any(), any())).thenAnswer(invocation -> {
+            blocked.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.of(new Order(invocation.getArgument(0)));
+        });
+        assertTrue(writer.request("order-1", orderType));
+        assertTrue(blocked.await(5, TimeUnit.SECONDS));
+
+        // When
+        assertTrue(writer.request("order-2", orderType));
+        assertTrue(writer.request("order-2", orderType)); // Coalesced into the waiting request
+        assertFalse(writer.request("order-3", orderType)); // Queue is full
+        release.countDown();
+
+        // Then
+        verify(snapshotService, timeout(5000).times(2)).createSnapshot(any());
+        assertEquals(1.0, meterRegistry.get("eventstore.snapshot.requests").tag("outcome", "coalesced").counter().count());
+        assertEquals(1.0, meterRegistry.get("eventstore.snapshot.requests").tag("outcome", "dropped").counter().count());
+        verify(eventStore, never()).loadFromLatestSnapshot("order-3", Order.class);
+    }
+
+    private SnapshotWriter startWriter(int queueCapacity) {
+        var snapshotWriter = new SnapshotWriter(eventStore, snapshotService, transactionRegistry, meterRegistry,
+            1, queueCapacity);
+        snapshotWriter.start();
+        return snapshotWriter;
+    }
+}
@@ -0,0 +1,120 @@
+package ca.bazlur.eventsourcing.projections;
+
+import ca.bazlur.eventsourcing.domain.order.events.OrderCreatedEvent;
+import ca.bazlur.eventsourcing.domain.order.events.OrderItemAddedEvent;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The shadow table swap drops and renames the live tables, so it runs against a schema of its
+ * own rather than the one the other tests share.
+ */
+@QuarkusTest
+@TestProfile(OrderProjectionShadowSwapTest.DedicatedSchema.class)
+class OrderProjectionShadowSwapTest {
+
+    @Inject
+    OrderProjectionRepository repository;
+
+    @Inject
+    OrderProjection orderProjection;
+
+    @Inject
+    EntityManager entityManager;
+
+    @BeforeEach
+    @Transactional
+    void setUp() {
+        orderProjection.reset();
+    }
+
+    @Test
+    void shouldServeLiveTablesUntilShadowRebuildIsSwappedIn() {
+        // Arrange - An order in the live tables
+        String orderId = UUID.randomUUID().toString();
+        String correlationId = UUID.randomUUID().toString();
+        orderProjection.handle(new OrderCreatedEvent(orderId, 1L, "customer-1", correlationId, null));
+
+        // Act - Rebuild into the shadow tables with one more item than the live model has
+        orderProjection.prepareRebuild();
+        orderProjection.handleBatch(List.of(
+            new OrderCreatedEvent(orderId, 1L, "customer-1", correlationId, null),
+            new OrderItemAddedEvent(orderId, 2L, "product-1", "Product 1", 2, BigDecimal.TEN, correlationId, null)
+        ));
+
+        // Assert - Reads still see the live model while the rebuild runs
+        var beforeSwap = repository.findById(orderId);
+        assertTrue(beforeSwap.isPresent());
+        assertEquals(1L, beforeSwap.get().getVersion());
+        assertTrue(beforeSwap.get().getItems().isEmpty());
+
+        // Act - Swap the rebuilt model in
+        orderProjection.completeRebuild();
+
+        // Assert - Reads now see the rebuilt model
+        var afterSwap = orderProjection.getById(orderId);
+        assertNotNull(afterSwap);
+        assertEquals(2L, afterSwap.getVersion());
+        assertEquals(1, afterSwap.getItems().size());
+        assertEquals(0, BigDecimal.valueOf(20).compareTo(afterSwap.getTotalAmount()));
+
+        // The live path keeps working against the swapped-in tables
+        orderProjection.handle(new OrderItemAddedEvent(
+            orderId, 3L, "product-2", "Product 2", 1, BigDecimal.ONE, correlationId, null));
+        assertEquals(2, repository.findById(orderId).orElseThrow().getItems().size());
+
+        // The swapped-in tables carry the index names of the entity mapping
+        var indexes = entityManager.createNativeQuery(
+                "SELECT indexname FROM pg_indexes WHERE schemaname = current_schema()", String.class)
+            .getResultList();
+        assertTrue(indexes.containsAll(List.of(
+            OrderProjectionEntity.CUSTOMER_ID_INDEX, OrderItemProjectionEntity.ORDER_ID_INDEX,
+            OrderItemProjectionEntity.ORDER_VERSION_KEY)));
+    }
+
+    @Test
+    void shouldGoBackToLiveTablesWhenRebuildIsAborted() {
+        // Arrange - A rebuild that has written to the shadow tables
+        String orderId = UUID.randomUUID().toString();
+        String correlationId = UUID.randomUUID().toString();
+        orderProjection.prepareRebuild();
+        orderProjection.handleBatch(List.of(new OrderCreatedEvent(orderId, 1L, "customer-1", correlationId, null)));
+
+        // Act
+        orderProjection.abortRebuild();
+        orderProjection.handleBatch(List.of(new OrderCreatedEvent(orderId, 1L, "customer-1", correlationId, null)));
+
+        // Assert - The shadow tables are gone and batches write to the live tables again
+        assertTrue(repository.findById(orderId).isPresent());
+        var shadowTables = entityManager.createNativeQuery(
+                "SELECT tablename FROM pg_tables WHERE schemaname = current_schema() AND tablename LIKE '%_shadow'",
+                String.class)
+            .getResultList();
+        assertTrue(shadowTables.isEmpty());
+    }
+
+    public static class DedicatedSchema implements QuarkusTestProfile {
+        private static final String SCHEMA = "shadow_swap_test";
+
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of(
+                "quarkus.hibernate-orm.database.default-schema", SCHEMA,
+                // Native statements use unqualified table names, so they resolve against the schema too
+                "quarkus.datasource.jdbc.additional-jdbc-properties.currentSchema", SCHEMA);
+        }
+    }
+}
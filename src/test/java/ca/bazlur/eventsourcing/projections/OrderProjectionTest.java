@@ -10,8 +10,10 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -116,7 +118,8 @@ class OrderProjectionTest {
         assertTrue(savedEntity.isPresent());
         assertEquals(OrderStatus.CONFIRMED, savedEntity.get().getStatus());
         assertEquals(1, savedEntity.get().getItems().size());
-        assertEquals(BigDecimal.valueOf(100.00), savedEntity.get().getTotalAmount());
+        // Read back from the table, so compare ignoring the column's scale
+        assertEquals(0, BigDecimal.valueOf(100.00).compareTo(savedEntity.get().getTotalAmount()));
 
         // Verify cache hit (second retrieval)
         var cachedOrder = orderProjection.getById(orderId);
@@ -187,7 +190,8 @@ class OrderProjectionTest {
         var savedEntity = repository.findById(orderId);
         assertTrue(savedEntity.isPresent());
         assertEquals(2, savedEntity.get().getItems().size());
-        assertEquals(BigDecimal.valueOf(70.00), savedEntity.get().getTotalAmount());
+        // Read back from the table, so compare ignoring the column's scale
+        assertEquals(0, BigDecimal.valueOf(70.00).compareTo(savedEntity.get().getTotalAmount()));
 
         // Verify cache hit
         var cachedOrder = orderProjection.getById(orderId);
@@ -400,6 +404,163 @@ class OrderProjectionTest {
         assertEquals(newOrderId, newOrder.getId());
     }
 
+    @Test
+    @Transactional
+    void shouldAppendItemsWithoutRewritingExistingRows() {
+        // Arrange
+        String orderId = UUID.randomUUID().toString();
+        String correlationId = UUID.randomUUID().toString();
+        orderProjection.handle(new OrderCreatedEvent(orderId, 1L, "customer-1", correlationId, null));
+        orderProjection.handle(new OrderItemAddedEvent(
+            orderId, 2L, "product-1", "Product 1", 1, BigDecimal.TEN, correlationId, null));
+        var firstItemId = repository.findById(orderId).orElseThrow().getItems().get(0).getId();
+
+        // Act
+        orderProjection.handle(new OrderItemAddedEvent(
+            orderId, 3L, "product-2", "Product 2", 2, BigDecimal.ONE, correlationId, null));
+
+        // Assert - The first item row survives and only the totals moved on the order
+        var savedEntity = repository.findById(orderId).orElseThrow();
+        assertEquals(2, savedEntity.getItems().size());
+        assertTrue(savedEntity.getItems().stream().anyMatch(item -> item.getId().equals(firstItemId)));
+        assertEquals(0, BigDecimal.valueOf(12).compareTo(savedEntity.getTotalAmount()));
+        assertEquals(3L, savedEntity.getVersion());
+    }
+
+    @Test
+    @Transactional
+    void shouldIgnoreReplayedEventsOlderThanStoredVersion() {
+        // Arrange
+        String orderId = UUID.randomUUID().toString();
+        String correlationId = UUID.randomUUID().toString();
+        var createEvent = new OrderCreatedEvent(orderId, 1L, "customer-1", correlationId, null);
+        orderProjection.handle(createEvent);
+        orderProjection.handle(new OrderItemAddedEvent(
+            orderId, 2L, "product-1", "Product 1", 1, BigDecimal.TEN, correlationId, null));
+
+        // Act - Replay the creation, as a resume from an older checkpoint would
+        orderProjection.handle(createEvent);
+
+        // Assert - The stored order keeps its newer state and items
+        var savedEntity = repository.findById(orderId);
+        assertTrue(savedEntity.isPresent());
+        assertEquals(2L, savedEntity.get().getVersion());
+        assertEquals(1, savedEntity.get().getItems().size());
+        assertEquals(OrderStatus.CONFIRMED, savedEntity.get().getStatus());
+    }
+
+    @Test
+    @Transactional
+    void shouldAddItemAfterVersionOfAnotherEventType() {
+        // Arrange
+        String orderId = UUID.randomUUID().toString();
+        String correlationId = UUID.randomUUID().toString();
+        orderProjection.handle(new OrderCreatedEvent(orderId, 1L, "customer-1", correlationId, null));
+
+        // Act - Version 2 is an event type this projection does not handle
+        orderProjection.handle(new OrderItemAddedEvent(
+            orderId, 3L, "product-1", "Product 1", 1, BigDecimal.TEN, correlationId, null));
+        orderProjection.handle(new OrderItemAddedEvent(
+            orderId, 4L, "product-2", "Product 2", 2, BigDecimal.ONE, correlationId, null));
+
+        // Assert - Both items are added, and replaying one changes nothing
+        orderProjection.handle(new OrderItemAddedEvent(
+            orderId, 3L, "product-1", "Product 1", 1, BigDecimal.TEN, correlationId, null));
+        var savedEntity = repository.findById(orderId).orElseThrow();
+        assertEquals(4L, savedEntity.getVersion());
+        assertEquals(2, savedEntity.getItems().size());
+        assertEquals(0, BigDecimal.valueOf(12).compareTo(savedEntity.getTotalAmount()));
+        assertEquals(OrderStatus.CONFIRMED, savedEntity.getStatus());
+    }
+
+    @Test
+    @Transactional
+    void shouldAddItemOfAnEventOnlyOnce() {
+        // Arrange - The item of version 2 is already stored
+        String orderId = UUID.randomUUID().toString();
+        String correlationId = UUID.randomUUID().toString();
+        orderProjection.handle(new OrderCreatedEvent(orderId, 1L, "customer-1", correlationId, null));
+        orderProjection.handle(new OrderItemAddedEvent(
+            orderId, 2L, "product-1", "Product 1", 1, BigDecimal.TEN, correlationId, null));
+
+        var item = new OrderProjectionModel.OrderItemProjection(
+            "product-1", "Product 1", 1, BigDecimal.TEN, BigDecimal.TEN, 2L);
+        var stale = new OrderProjectionModel(orderId, "customer-1", OrderStatus.CONFIRMED,
+            new ArrayList<>(List.of(item)), BigDecimal.TEN, Instant.now(), Instant.now(), 2L);
+
+        // Act - Append it again, as a second writer holding the order at version 1 would
+        var applied = repository.appendItem(stale, item);
+
+        // Assert
+        assertFalse(applied);
+        var savedEntity = repository.findById(orderId).orElseThrow();
+        assertEquals(1, savedEntity.getItems().size());
+        assertEquals(0, BigDecimal.TEN.compareTo(savedEntity.getTotalAmount()));
+    }
+
+    @Test
+    @Transactional
+    void shouldApplyBatchWithSameResultAsSingleEvents() {
+        // Arrange
+        String orderId = UUID.randomUUID().toString();
+        String otherOrderId = UUID.randomUUID().toString();
+        String correlationId = UUID.randomUUID().toString();
+
+        // Act - Fold creations and items for two orders in one batch
+        orderProjection.handleBatch(List.of(
+            new OrderCreatedEvent(orderId, 1L, "customer-1", correlationId, null),
+            new OrderCreatedEvent(otherOrderId, 1L, "customer-2", correlationId, null),
+            new OrderItemAddedEvent(orderId, 2L, "product-1", "Product 1", 1, BigDecimal.valueOf(25.00), correlationId, null),
+            new OrderItemAddedEvent(orderId, 3L, "product-2", "Product 2", 3, BigDecimal.valueOf(15.00), correlationId, null)
+        ));
+
+        // Replaying an already applied event in a later batch is a no-op
+        orderProjection.handleBatch(List.of(
+            new OrderItemAddedEvent(orderId, 3L, "product-2", "Product 2", 3, BigDecimal.valueOf(15.00), correlationId, null),
+            new OrderItemAddedEvent(otherOrderId, 2L, "product-3", "Product 3", 2, BigDecimal.TEN, correlationId, null)
+        ));
+
+        // Assert
+        var order = orderProjection.getById(orderId);
+        assertNotNull(order);
+        assertEquals(OrderStatus.CONFIRMED, order.getStatus());
+        assertEquals(2, order.getItems().size());
+        assertEquals(0, BigDecimal.valueOf(70.00).compareTo(order.getTotalAmount()));
+        assertEquals(3L, order.getVersion());
+
+        var otherOrder = orderProjection.getById(otherOrderId);
+        assertNotNull(otherOrder);
+        assertEquals(1, otherOrder.getItems().size());
+        assertEquals(0, BigDecimal.valueOf(20).compareTo(otherOrder.getTotalAmount()));
+        assertEquals(2L, otherOrder.getVersion());
+    }
+
+    @Test
+    @Transactional
+    void shouldNotAddItemsForOrderMovedSinceBatchWasFolded() {
+        // Arrange - The order moves to version 2 after a batch was folded from version 1
+        String orderId = UUID.randomUUID().toString();
+        String correlationId = UUID.randomUUID().toString();
+        orderProjection.handle(new OrderCreatedEvent(orderId, 1L, "customer-1", correlationId, null));
+        orderProjection.handle(new OrderItemAddedEvent(
+            orderId, 2L, "product-1", "Product 1", 1, BigDecimal.TEN, correlationId, null));
+
+        var item = new OrderProjectionModel.OrderItemProjection(
+            "product-1", "Product 1", 1, BigDecimal.TEN, BigDecimal.TEN, 2L);
+        var folded = new OrderProjectionModel(orderId, "customer-1", OrderStatus.CONFIRMED,
+            new ArrayList<>(List.of(item)), BigDecimal.TEN, Instant.now(), Instant.now(), 2L);
+
+        // Act - Write the stale fold
+        var written = repository.bulkUpsert(OrderProjectionRepository.Tables.LIVE, List.of(folded),
+            Map.of(orderId, 1L), Map.of(orderId, List.of(item)));
+
+        // Assert - The order is skipped, and so are its items
+        assertTrue(written.isEmpty());
+        var savedEntity = repository.findById(orderId).orElseThrow();
+        assertEquals(1, savedEntity.getItems().size());
+        assertEquals(2L, savedEntity.getVersion());
+    }
+
     @Test
     void shouldReturnCorrectProjectionName() {
         assertEquals("OrderProjection", orderProjection.getProjectionName());
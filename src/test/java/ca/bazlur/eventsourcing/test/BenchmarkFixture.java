@@ -0,0 +1,61 @@
+package ca.bazlur.eventsourcing.test;
+
+import ca.bazlur.eventsourcing.core.DomainEvent;
+import ca.bazlur.eventsourcing.domain.order.events.OrderCreatedEvent;
+import ca.bazlur.eventsourcing.domain.order.events.OrderItemAddedEvent;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Events and timing shared by the benchmark tests. Benchmarks assert what does not depend on the
+ * machine, such as sizes, counts and correctness, and only log their timings.
+ */
+public final class BenchmarkFixture {
+
+    private BenchmarkFixture() {
+    }
+
+    /**
+     * The events of one order stream: its creation followed by item additions, up to the given
+     * number of events in total.
+     */
+    public static List<DomainEvent> orderEvents(String streamId, int count) {
+        var events = new ArrayList<DomainEvent>(count);
+        events.add(new OrderCreatedEvent(streamId, 1L, "customer-1", UUID.randomUUID().toString(), null));
+        events.addAll(itemEvents(streamId, count - 1));
+        return events;
+    }
+
+    /**
+     * Item additions to an order, from version 2 on, with a little variety in their fields.
+     */
+    public static List<OrderItemAddedEvent> itemEvents(String streamId, int count) {
+        var correlationId = UUID.randomUUID().toString();
+        var events = new ArrayList<OrderItemAddedEvent>(count);
+        for (int i = 0; i < count; i++) {
+            events.add(new OrderItemAddedEvent(streamId, i + 2L, "product-" + i, "Product number " + i,
+                i % 5 + 1, new BigDecimal("19.99"), correlationId, null));
+        }
+        return events;
+    }
+
+    /**
+     * Runs the action once to warm up, then times a second run.
+     */
+    public static <T> Timed<T> time(Supplier<T> action) {
+        action.get();
+        var start = System.nanoTime();
+        var result = action.get();
+        return new Timed<>(result, System.nanoTime() - start);
+    }
+
+    public record Timed<T>(T result, long nanos) {
+        public long micros() {
+            return nanos / 1_000;
+        }
+    }
+}